@@ -0,0 +1,49 @@
+package unibs.it.dii.mhs.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import unibs.it.dii.mhs.model.Matrix;
+import unibs.it.dii.utility.FileMatrixReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the reading of a .matrix file ({@link FileMatrixReader#readMatrixFromFile}) with random content.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileMatrixReaderBenchmark {
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    @Param({"100", "1000"})
+    private int cols;
+
+    @Param({"0.05", "0.5"})
+    private double density;
+
+    private File file;
+    private FileMatrixReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = SyntheticMatrix.writeTemporaryFile(SyntheticMatrix.generate(rows, cols, density));
+        reader = new FileMatrixReader();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public Matrix readMatrixFromFile() throws IOException {
+        return reader.readMatrixFromFile(file);
+    }
+}
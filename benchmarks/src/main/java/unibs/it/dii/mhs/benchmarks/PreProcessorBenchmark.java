@@ -0,0 +1,41 @@
+package unibs.it.dii.mhs.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import unibs.it.dii.mhs.model.MinimalHittingSetPreProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the Pre-Elaboration procedure ({@link MinimalHittingSetPreProcessor#execute}) on random matrices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreProcessorBenchmark {
+
+    @Param({"100", "500"})
+    private int rows;
+
+    @Param({"50", "200"})
+    private int cols;
+
+    @Param({"0.05", "0.2"})
+    private double density;
+
+    private boolean[][] matrix;
+    private MinimalHittingSetPreProcessor preProcessor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        matrix = SyntheticMatrix.generate(rows, cols, density);
+        preProcessor = new MinimalHittingSetPreProcessor(false);
+    }
+
+    @Benchmark
+    public boolean[][] execute() {
+        return preProcessor.execute(matrix);
+    }
+}
@@ -0,0 +1,63 @@
+package unibs.it.dii.mhs.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import unibs.it.dii.mhs.model.Matrix;
+import unibs.it.dii.mhs.model.MinimalHittingSetSolver;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the MBase procedure ({@link MinimalHittingSetSolver#execute}) on random matrices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({"8", "12"})
+    private int rows;
+
+    @Param({"32", "48"})
+    private int cols;
+
+    @Param({"0.1", "0.2"})
+    private double density;
+
+    @Param({"false", "true"})
+    private boolean bitPacked;
+
+    private Matrix matrix;
+    private MinimalHittingSetSolver solver;
+    private PrintStream standardOutput;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        matrix = new Matrix(SyntheticMatrix.generate(rows, cols, density));
+        solver = new MinimalHittingSetSolver(false, bitPacked, 1, 0, 0, 0, false, false, false);
+
+        // The solver prints the information of each execution
+        standardOutput = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(standardOutput);
+    }
+
+    @Benchmark
+    public long execute(Blackhole blackhole) throws Exception {
+        solver.execute(matrix, Long.MAX_VALUE, (elements, size) -> blackhole.consume(elements[size - 1]));
+        return solver.getNumberMHSFound();
+    }
+}
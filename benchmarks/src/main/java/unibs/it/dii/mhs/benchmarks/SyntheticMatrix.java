@@ -0,0 +1,75 @@
+package unibs.it.dii.mhs.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Class to generate the random boolean matrices used by the benchmarks.
+ */
+final class SyntheticMatrix {
+
+    // Same seed for each run, so that the results of different versions can be compared
+    private static final long SEED = 42L;
+
+    private SyntheticMatrix() {
+    }
+
+    /**
+     * Method to generate a random boolean matrix: each cell is true with the given probability and each row has at
+     * least one true cell (i.e. each set can be hit).
+     *
+     * @param rows    the number of rows
+     * @param cols    the number of columns
+     * @param density the probability of each cell to be true
+     * @return the boolean matrix generated
+     */
+    static boolean[][] generate(int rows, int cols, double density) {
+        final Random random = new Random(SEED);
+        final boolean[][] matrix = new boolean[rows][cols];
+
+        for (int i = 0; i < rows; i++) {
+            boolean empty = true;
+
+            for (int j = 0; j < cols; j++) {
+                matrix[i][j] = random.nextDouble() < density;
+                empty &= !matrix[i][j];
+            }
+
+            if (empty)
+                matrix[i][random.nextInt(cols)] = true;
+        }
+
+        return matrix;
+    }
+
+    /**
+     * Method to write a boolean matrix on a temporary .matrix file, with the same format of the benchmark files.
+     *
+     * @param matrix the boolean matrix to write
+     * @return the temporary file (deleted on exit)
+     * @throws IOException
+     */
+    static File writeTemporaryFile(boolean[][] matrix) throws IOException {
+        final File file = Files.createTempFile("synthetic-", ".matrix").toFile();
+        file.deleteOnExit();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(";;; Synthetic matrix " + matrix.length + "x" + matrix[0].length);
+            writer.newLine();
+
+            for (boolean[] row : matrix) {
+                for (boolean cell : row) {
+                    writer.write(cell ? "1 " : "0 ");
+                }
+                writer.write("-");
+                writer.newLine();
+            }
+        }
+
+        return file;
+    }
+}
@@ -0,0 +1,141 @@
+package unibs.it.dii.mhs;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+import org.apache.commons.io.FilenameUtils;
+import unibs.it.dii.mhs.model.Matrix;
+import unibs.it.dii.utility.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line tool to convert the benchmark files .matrix into the binary format .bmatrix (see
+ * {@link BinaryMatrixWriter}), read much faster by {@link FileMatrixReader}, or into the sparse format .smatrix (see
+ * {@link SparseMatrixWriter}). It also converts the output files with any {@link OutputEncoding} into output files with
+ * the dense encoding (see {@link OutputMatrixReader}).
+ */
+public class MatrixConverterMain {
+
+    private static final String DENSE_OUTPUT_SUFFIX = "-dense" + OutputFileWriter.OUTPUT_FILE_EXTENSION;
+
+    final FileMatrixReader reader = new FileMatrixReader();
+    final BinaryMatrixWriter writer = new BinaryMatrixWriter();
+    final SparseMatrixWriter sparseWriter = new SparseMatrixWriter();
+    final OutputMatrixReader outputReader = new OutputMatrixReader();
+
+    public static void main(String[] args) throws Exception {
+        final ConverterArgs arguments = new ConverterArgs();
+        JCommander jc = JCommander.newBuilder()
+                .addObject(arguments)
+                .programName("java -cp minimal-hitting-set-maven-project-1.0.jar " + MatrixConverterMain.class.getName())
+                .build();
+
+        try {
+            jc.parse(args);
+        } catch (ParameterException pe) {
+            System.err.println(pe.getMessage());
+            jc.usage();
+            System.exit(0);
+        }
+
+        MatrixConverterMain main = new MatrixConverterMain();
+
+        main.run(arguments, jc);
+    }
+
+    public void run(ConverterArgs arguments, JCommander jc) throws IOException {
+        // Help call by [-h|--help] argument
+        if (arguments.isHelp()) {
+            jc.usage();
+            System.exit(255);
+        }
+
+        if (arguments.isManualMode() == arguments.isAutomaticMode()) {
+            System.err.println("Please choose only one argument between -in or -dir");
+            jc.usage();
+            System.exit(200);
+        }
+
+        if (arguments.isManualMode()) {
+            if (arguments.isDenseOutput())
+                convertOutput(arguments.getInputPath().toFile(), arguments.getOutputPath());
+            else
+                convert(arguments.getInputPath().toFile(), arguments.getOutputPath(), arguments);
+            return;
+        }
+
+        final List<Path> files;
+        try (Stream<Path> stream = Files.list(arguments.getDirectoryPath())) {
+            files = stream.filter(f -> arguments.isDenseOutput() ? isOutputFile(f) : FilenameUtils.getExtension(f.toString()).equals("matrix"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for (Path file : files) {
+            if (arguments.isDenseOutput())
+                convertOutput(file.toFile(), arguments.getOutputPath());
+            else
+                convert(file.toFile(), arguments.getOutputPath(), arguments);
+        }
+    }
+
+    /**
+     * @param file a file of the directory
+     * @return true if the file is an output file (.out or .out.gz) not already converted
+     */
+    private boolean isOutputFile(Path file) {
+        final String name = file.getFileName().toString();
+
+        return (name.endsWith(OutputFileWriter.OUTPUT_FILE_EXTENSION) || name.endsWith(OutputFileWriter.OUTPUT_FILE_EXTENSION + OutputFileWriter.GZIP_FILE_EXTENSION))
+                && !name.endsWith(DENSE_OUTPUT_SUFFIX);
+    }
+
+    /**
+     * Method to convert an output file .out (or .out.gz) into an output file -dense.out with the dense encoding.
+     *
+     * @param inputFile       the output file
+     * @param outputDirectory the directory of the file converted (empty path for the directory of the input file)
+     * @throws IOException if the output matrix is not valid
+     */
+    private void convertOutput(File inputFile, Path outputDirectory) throws IOException {
+        final File directory = outputDirectory.toString().isEmpty() ? inputFile.getAbsoluteFile().getParentFile() : outputDirectory.toFile();
+        String name = inputFile.getName();
+        if (name.endsWith(OutputFileWriter.GZIP_FILE_EXTENSION))
+            name = name.substring(0, name.length() - OutputFileWriter.GZIP_FILE_EXTENSION.length());
+        if (name.endsWith(OutputFileWriter.OUTPUT_FILE_EXTENSION))
+            name = name.substring(0, name.length() - OutputFileWriter.OUTPUT_FILE_EXTENSION.length());
+        final File outputFile = new File(directory, name + DENSE_OUTPUT_SUFFIX);
+
+        outputReader.writeDenseOutputFile(inputFile, outputFile);
+
+        System.out.println(inputFile.getName() + " (" + inputFile.length() + " bytes) > " + outputFile.getAbsolutePath() + " (" + outputFile.length() + " bytes)");
+    }
+
+    /**
+     * Method to convert a file .matrix into a file .bmatrix (or .smatrix) with the same name.
+     *
+     * @param inputFile       the file .matrix
+     * @param outputDirectory the directory of the file converted (empty path for the directory of the input file)
+     * @param arguments       the arguments with the format of the file converted
+     * @throws IOException
+     */
+    private void convert(File inputFile, Path outputDirectory, ConverterArgs arguments) throws IOException {
+        final Matrix matrix = reader.readMatrixFromFile(inputFile);
+        final File directory = outputDirectory.toString().isEmpty() ? inputFile.getAbsoluteFile().getParentFile() : outputDirectory.toFile();
+        final String extension = arguments.isSparse() ? SparseMatrixWriter.FILE_SPARSE_MATRIX_EXTENSION : BinaryMatrixWriter.FILE_BINARY_MATRIX_EXTENSION;
+        final File outputFile = new File(directory, matrix.getName() + "." + extension);
+
+        if (arguments.isSparse())
+            sparseWriter.writeMatrixToFile(matrix.getBoolMatrix(), outputFile);
+        else
+            writer.writeMatrixToFile(matrix.getBoolMatrix(), outputFile, !arguments.isNoHash());
+
+        System.out.println(inputFile.getName() + " (" + inputFile.length() + " bytes) > " + outputFile.getAbsolutePath() + " (" + outputFile.length() + " bytes)");
+    }
+}
@@ -1,14 +1,16 @@
 package unibs.it.dii.mhs;
 
-import com.opencsv.CSVWriter;
+import org.apache.commons.io.FilenameUtils;
+import unibs.it.dii.mhs.model.ColumnMapping;
 import unibs.it.dii.mhs.model.Matrix;
 import unibs.it.dii.mhs.model.MinimalHittingSetPreProcessor;
+import unibs.it.dii.mhs.model.MinimalHittingSetSink;
 import unibs.it.dii.mhs.model.MinimalHittingSetSolver;
 import unibs.it.dii.utility.*;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -16,7 +18,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class to manage the Minimal Hitting Set execution.
@@ -36,8 +42,16 @@ public class MinimalHittingSetFacade {
     final static private String PATH_TO_CSV = "./csv";
     final static private String CSV_FILE_NAME = "mhs-report-" + LocalDate.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy")) + ".csv";
 
-    final static private String CSV_HEADER = "Date-Time,Matrix,Execution time Pre-Elaboration (ms),Pre-Elaboration RAM (MB),Rows removed,Cols removed,Execution time MBase (ms),MBase RAM (MB),Out of Time,Out of Memory,Rows,Columns,Cardinality Min,Cardinality Max,#MHS";
+    // Columns of the CSV report with text values (the other ones are numbers or booleans)
+    final static private Set<String> CSV_TEXT_COLUMNS = new HashSet<>(Arrays.asList("Date-Time", "Matrix"));
+    // Thresholds to write the records of the report kept in memory
+    final static private int REPORT_FLUSH_RECORDS = 100;
+    final static private long REPORT_FLUSH_MILLIS = 10000;
+    // Time in milliseconds after the time limit before a child JVM is killed (start of the JVM, reading, writing)
+    final static private long FORK_GRACE_MILLIS = 30000;
+    final static private String CSV_HEADER = "Date-Time,Matrix,Execution time Pre-Elaboration (ms),Pre-Elaboration RAM (MB),Rows removed,Cols removed,Essential cols,Pre-Elaboration Out of Time,Pre-Elaboration Passes,Execution time MBase (ms),MBase RAM (MB),MBase Queue Peak (KB),Out of Time,Out of Memory,Cardinality Bound Reached,MHS Limit Reached,Rows,Columns,Cardinality Min,Cardinality Max,#MHS";
 
+    private static final long KILOBYTE = 1024L;
     private static final long MEGABYTE = 1024L * 1024L;
     final static public int STD_OUT_MHS_LIMIT = 10000;
 
@@ -48,12 +62,25 @@ public class MinimalHittingSetFacade {
     final private Path inputDirectoryPath;
     final private long timeout;
     final private boolean automaticMode;
+    final private boolean bitPacked;
+    final private int threads;
+    final private long spillBudget;
+    final private int maxCardinality;
+    final private long limit;
+    final private boolean depthFirst;
+    final private boolean decompose;
+    final private boolean compressColumns;
+    final private OutputEncoding outputEncoding;
+    final private boolean jsonLines;
+    final private int jobs;
+    final private boolean fork;
+    final private int childHeap;
+    final private boolean reportPipe;
     private Queue<String> benchmarkFileQueue = new LinkedList<>();
-    final OutputCSVWriter csvWriter = new OutputCSVWriter();
     final FileMatrixReader reader = new FileMatrixReader();
-    final OutputFileWriter outputFileWriter;
+    final private boolean gzip;
 
-    public MinimalHittingSetFacade(boolean preProcessing, boolean verbosity, Path inputPath, Path outputPath, Path inputDirectoryPath, long timeout, boolean automaticMode) throws IOException {
+    public MinimalHittingSetFacade(boolean preProcessing, boolean verbosity, Path inputPath, Path outputPath, Path inputDirectoryPath, long timeout, boolean automaticMode, boolean bitPacked, int threads, long spillBudget, int maxCardinality, long limit, boolean depthFirst, boolean decompose, boolean compressColumns, boolean gzip, OutputEncoding outputEncoding, boolean jsonLines, int jobs, boolean fork, int childHeap, boolean reportPipe) throws IOException {
         this.preProcessing = preProcessing;
         this.verbose = verbosity;
         this.inputPath = inputPath;
@@ -61,7 +88,25 @@ public class MinimalHittingSetFacade {
         this.inputDirectoryPath = inputDirectoryPath;
         this.timeout = timeout;
         this.automaticMode = automaticMode;
-        this.outputFileWriter = new OutputFileWriter(outputPath);
+        this.bitPacked = bitPacked;
+        this.threads = threads;
+        this.spillBudget = spillBudget;
+        this.maxCardinality = maxCardinality;
+        this.limit = limit;
+        this.depthFirst = depthFirst;
+        this.decompose = decompose;
+        this.compressColumns = compressColumns;
+        this.outputEncoding = outputEncoding;
+        this.jsonLines = jsonLines;
+        this.gzip = gzip;
+        this.jobs = jobs;
+        this.fork = fork;
+        this.childHeap = childHeap;
+        this.reportPipe = reportPipe;
+
+        // Create the output directory
+        if (!outputPath.toFile().exists())
+            Files.createDirectories(outputPath);
     }
 
     /**
@@ -78,13 +123,17 @@ public class MinimalHittingSetFacade {
         // Run the garbage collector
         runtime.gc();
 
-        final Path csvPath = Paths.get(PATH_TO_CSV + "/" + CSV_FILE_NAME);
-        // Create CSV writer object
-        final OutputCSVWriter csvWriter = new OutputCSVWriter();
+        fillInputBenchmarkFiles();
+
+        // Child JVM of a supervisor (--fork): the record is sent back on the standard output instead of the CSV file
+        if (reportPipe) {
+            processFile(new File(benchmarkFileQueue.poll()), new PipeReportWriter(), runtime, debugMode);
+            return;
+        }
 
-        checkCSVPath(csvPath, csvWriter);
+        final Path csvPath = Paths.get(PATH_TO_CSV + "/" + CSV_FILE_NAME);
 
-        fillInputBenchmarkFiles();
+        checkCSVPath();
 
         if (debugMode)
             benchmarkFileQueue.forEach(System.out::println);
@@ -93,19 +142,187 @@ public class MinimalHittingSetFacade {
 
         int numberFileToProcess = benchmarkFileQueue.size();
 
-        for (int i = 0; !benchmarkFileQueue.isEmpty(); i++) {
-            if (i > 0) {
-                System.out.println("Remaining benchmark files to process: " + (numberFileToProcess - i));
-                TimeUnit.SECONDS.sleep(1);
+        // Create the writer of the report records (CSV and JSON lines), open for all the execution
+        try (OutputCSVWriter csvWriter = new OutputCSVWriter(csvPath, CSV_HEADER.split(","), CSV_TEXT_COLUMNS, jsonLines ? getJsonLinesPath(csvPath) : null, REPORT_FLUSH_RECORDS, REPORT_FLUSH_MILLIS)) {
+            if (jobs > 1 && numberFileToProcess > 1) {
+                processConcurrently(csvWriter, runtime, debugMode);
+            } else {
+                for (int i = 0; !benchmarkFileQueue.isEmpty(); i++) {
+                    if (i > 0)
+                        System.out.println("Remaining benchmark files to process: " + (numberFileToProcess - i));
+
+                    processFileOrFork(new File(benchmarkFileQueue.poll()), csvWriter, runtime, debugMode);
+                }
             }
+        }
 
-            // Object to build row to add into the CSV file
-            StringJoiner stringJoiner = new StringJoiner(",");
-            // Add the first column value, namely the date-time information
-            stringJoiner.add(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy-HH:mm:ss")));
+    }
+
+    /**
+     * Method to process the benchmark files concurrently: at most {@code jobs} files are processed at the same time by
+     * a pool of workers, each one with its own time limit, solver and output file, while the records of the report are
+     * written by the shared CSV writer. Each line printed by a worker starts with the name of its file (the lines of
+     * the child JVMs are already prefixed).
+     *
+     * @param csvWriter the writer of the report records (thread-safe)
+     * @param runtime   the Java run-time
+     * @param debugMode true to print debug information
+     * @throws Exception
+     */
+    private void processConcurrently(OutputCSVWriter csvWriter, Runtime runtime, boolean debugMode) throws Exception {
+        final int numberFileToProcess = benchmarkFileQueue.size();
+        final ExecutorService pool = Executors.newFixedThreadPool(Math.min(jobs, numberFileToProcess));
+        final AtomicInteger remaining = new AtomicInteger(numberFileToProcess);
+        final List<Future<Void>> futures = new ArrayList<>();
+
+        final PrintStream stdOut = System.out;
+        final PrintStream stdErr = System.err;
+        final LinePrefixOutputStream prefixedStdOut = new LinePrefixOutputStream(stdOut);
+        final LinePrefixOutputStream prefixedStdErr = new LinePrefixOutputStream(stdErr);
+        if (!fork) {
+            System.setOut(new PrintStream(prefixedStdOut, true));
+            System.setErr(new PrintStream(prefixedStdErr, true));
+        }
 
-            // Create the input file object
-            final File inputFile = new File(benchmarkFileQueue.poll());
+        try {
+            while (!benchmarkFileQueue.isEmpty()) {
+                final File inputFile = new File(benchmarkFileQueue.poll());
+                final String prefix = "[" + FilenameUtils.removeExtension(inputFile.getName()) + "] ";
+                futures.add(pool.submit(() -> {
+                    prefixedStdOut.setPrefix(prefix);
+                    prefixedStdErr.setPrefix(prefix);
+                    try {
+                        processFileOrFork(inputFile, csvWriter, runtime, debugMode);
+                    } finally {
+                        prefixedStdOut.setPrefix(null);
+                        prefixedStdErr.setPrefix(null);
+                    }
+                    System.out.println("Remaining benchmark files to process: " + remaining.decrementAndGet());
+                    return null;
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            System.setOut(stdOut);
+            System.setErr(stdErr);
+        }
+    }
+
+    /**
+     * Method to process a benchmark file in this JVM or, with --fork, in a child JVM.
+     *
+     * @param inputFile the benchmark file
+     * @param csvWriter the writer of the report records
+     * @param runtime   the Java run-time
+     * @param debugMode true to print debug information
+     * @throws Exception
+     */
+    private void processFileOrFork(File inputFile, OutputCSVWriter csvWriter, Runtime runtime, boolean debugMode) throws Exception {
+        if (fork)
+            processFileInChildJvm(inputFile, csvWriter);
+        else
+            processFile(inputFile, csvWriter, runtime, debugMode);
+    }
+
+    /**
+     * Method to process a benchmark file in a child JVM with its own heap: the child writes the output file and sends
+     * back the record of the report, added to the CSV report. If the child crashes (e.g. OutOfMemoryError outside
+     * MBase) or it is killed at the hard deadline (time limit + grace period), a record of the failure is added.
+     *
+     * @param inputFile the benchmark file
+     * @param csvWriter the writer of the report records
+     * @throws Exception
+     */
+    private void processFileInChildJvm(File inputFile, OutputCSVWriter csvWriter) throws Exception {
+        final String name = FilenameUtils.removeExtension(inputFile.getName());
+        final String startTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy-HH:mm:ss"));
+
+        final ChildJvmRunner runner = new ChildJvmRunner(childHeap);
+        final ChildJvmRunner.Result result = runner.run(buildChildArguments(inputFile), timeout + FORK_GRACE_MILLIS, jobs > 1 ? "[" + name + "] " : "");
+
+        if (result.getRecord() != null && !result.isKilled()) {
+            csvWriter.writeRecord(result.getRecord());
+            return;
+        }
+
+        if (result.isKilled())
+            System.err.println("Child JVM of " + name + " killed at the hard deadline (" + (timeout + FORK_GRACE_MILLIS) + " ms)");
+        else
+            System.err.println("Child JVM of " + name + " crashed with exit code " + result.getExitCode());
+
+        // Record of the failure: no information about the pre-processing and MBase
+        final List<String> csvRecord = new ArrayList<>();
+        csvRecord.add(startTime);
+        csvRecord.add(name);
+        addPreProcessingInformationToRecord(csvRecord, 0, -1, 0, 0, 0, false, 0);
+        csvRecord.addAll(Arrays.asList(String.valueOf(result.getElapsedTime()), "-1", "-1",
+                String.valueOf(result.isKilled()), String.valueOf(result.isOutOfMemory()), "false", "false",
+                "-1", "-1", "0", "0", "0"));
+
+        csvWriter.writeRecord(csvRecord.toArray(new String[0]));
+    }
+
+    /**
+     * Method to build the arguments of the child JVM: the options of this execution for the single benchmark file.
+     *
+     * @param inputFile the benchmark file
+     * @return the arguments of MinimalHittingSetMain
+     */
+    private List<String> buildChildArguments(File inputFile) {
+        final List<String> arguments = new ArrayList<>();
+
+        arguments.addAll(Arrays.asList("-t", String.valueOf(timeout / 1000)));
+        if (preProcessing)
+            arguments.add("-pe");
+        if (verbose)
+            arguments.add("-v");
+        if (bitPacked)
+            arguments.add("-bp");
+        arguments.addAll(Arrays.asList("-th", String.valueOf(threads)));
+        arguments.addAll(Arrays.asList("-sb", String.valueOf(bytesToMegaBytes(spillBudget))));
+        arguments.addAll(Arrays.asList("-k", String.valueOf(maxCardinality)));
+        arguments.addAll(Arrays.asList("-l", String.valueOf(limit)));
+        if (depthFirst)
+            arguments.add("-df");
+        if (decompose)
+            arguments.add("-dc");
+        if (compressColumns)
+            arguments.add("-cc");
+        if (gzip)
+            arguments.add("-gz");
+        arguments.addAll(Arrays.asList("-oe", outputEncoding.name()));
+        arguments.addAll(Arrays.asList("-out", outputPath.toAbsolutePath().normalize().toString()));
+        arguments.addAll(Arrays.asList("-in", inputFile.getAbsolutePath()));
+        arguments.add("--report-pipe");
+
+        return arguments;
+    }
+
+    /**
+     * Method to find the MHS of a benchmark file: the pre-processing (optional) and MBase are executed within the time
+     * limit, the report is written on the output file of the matrix and the record on the report.
+     *
+     * @param inputFile    the benchmark file
+     * @param reportWriter the writer of the report records
+     * @param runtime      the Java run-time
+     * @param debugMode    true to print debug information
+     * @throws Exception
+     */
+    private void processFile(File inputFile, ReportWriter reportWriter, Runtime runtime, boolean debugMode) throws Exception {
+        // Create the writer of the output file of the matrix
+        try (OutputFileWriter outputFileWriter = new OutputFileWriter(outputPath, gzip)) {
+            // Values of the record to add into the CSV file
+            final List<String> csvRecord = new ArrayList<>();
+            // Add the first column value, namely the date-time information
+            csvRecord.add(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy-HH:mm:ss")));
 
             printStatusInformation(MSG_READING_MATRIX_FILE);
 
@@ -113,25 +330,29 @@ public class MinimalHittingSetFacade {
             final Matrix inputMatrix = reader.readMatrixFromFile(inputFile);
 
             if (verbose)
-                printBoolMatrix(inputMatrix.getBoolMatrix(), "Input Matrix:");
+                printMatrix(inputMatrix, "Input Matrix:");
 
             // Get the size of initial input matrix
-            int initialRows = inputMatrix.getBoolMatrix().length;
-            int initialCols = inputMatrix.getBoolMatrix()[0].length;
+            int initialRows = inputMatrix.getRows();
+            int initialCols = inputMatrix.getCols();
 
             // STDOUT
             printInputMatrixInformation(initialRows, initialCols, inputMatrix.getName());
             // CSV
-            stringJoiner.add(inputMatrix.getName());
+            csvRecord.add(inputMatrix.getName());
 
             // Set the default value for the pre-processing time/memory
             long preProcessingTime = 0;
             long memoryConsumedPP = -1;
             ArrayList<Integer> colsRemoved = new ArrayList<>();
+            ArrayList<Integer> essentialCols = new ArrayList<>();
             ArrayList<Integer> rowsRemoved = new ArrayList<>();
+            ColumnMapping columnMapping = new ColumnMapping(initialCols);
+            boolean outOfTimePP = false;
+            int passesPP = 0;
 
             // Create the MHS solver object
-            final MinimalHittingSetSolver solver = new MinimalHittingSetSolver(debugMode);
+            final MinimalHittingSetSolver solver = new MinimalHittingSetSolver(debugMode, bitPacked, threads, spillBudget, maxCardinality, limit, depthFirst, decompose, compressColumns);
 
             StringBuilder headerOutputStringBuilder = buildOutputHeaderString(inputMatrix.getName(), initialRows, initialCols, timeout);
 
@@ -139,14 +360,17 @@ public class MinimalHittingSetFacade {
                 printStatusInformation(MSG_PRE_PROCESSING_RUNNING);
 
                 // Create the object to compute the pre-processing operation
-                MinimalHittingSetPreProcessor preProcess = new MinimalHittingSetPreProcessor(debugMode);
+                MinimalHittingSetPreProcessor preProcess = new MinimalHittingSetPreProcessor(debugMode, threads);
 
                 if (debugMode)
                     printUsedMemory("Consumed memory before Pre-Processing: ", runtime);
 
                 // Pre-Processing execution
                 long startTimePP = System.currentTimeMillis();
-                boolean[][] newInputBoolMatrix = preProcess.execute(inputMatrix.getBoolMatrix());
+                // The sparse matrix is reduced without building the dense one
+                final Matrix newInputMatrix = inputMatrix.isSparse()
+                        ? new Matrix(preProcess.execute(inputMatrix.getSparseMatrix(), timeout))
+                        : new Matrix(preProcess.execute(inputMatrix.getBoolMatrix(), timeout));
                 long endTimePP = System.currentTimeMillis();
 
                 memoryConsumedPP = printUsedMemory("Consumed memory (Pre-Processing): ", runtime);
@@ -156,14 +380,21 @@ public class MinimalHittingSetFacade {
 
                 rowsRemoved = preProcess.getRowsToRemove();
                 colsRemoved = preProcess.getColsToRemove();
+                essentialCols = preProcess.getEssentialCols();
+                columnMapping = preProcess.getColumnMapping();
+                outOfTimePP = preProcess.isOutOfTime();
+                passesPP = preProcess.getPasses();
 
-                buildPreProcessingInformation(rowsRemoved, colsRemoved, newInputBoolMatrix, preProcessingTime, headerOutputStringBuilder, memoryConsumedPP);
+                buildPreProcessingInformation(rowsRemoved, colsRemoved, essentialCols, newInputMatrix, preProcessingTime, headerOutputStringBuilder, memoryConsumedPP, outOfTimePP, passesPP);
 
                 // Set the new input matrix after pre-processing
-                inputMatrix.setBoolMatrix(newInputBoolMatrix);
+                if (newInputMatrix.isSparse())
+                    inputMatrix.setSparseMatrix(newInputMatrix.getSparseMatrix());
+                else
+                    inputMatrix.setBoolMatrix(newInputMatrix.getBoolMatrix());
             }
 
-            addPreProcessingInformationToStringJoiner(stringJoiner, preProcessingTime, memoryConsumedPP, rowsRemoved.size(), colsRemoved.size());
+            addPreProcessingInformationToRecord(csvRecord, preProcessingTime, memoryConsumedPP, rowsRemoved.size(), colsRemoved.size(), essentialCols.size(), outOfTimePP, passesPP);
 
             printStatusInformation(MSG_MBASE_EXECUTION);
 
@@ -173,7 +404,7 @@ public class MinimalHittingSetFacade {
                 printUsedMemory("Consumed memory before MBase execution: ", runtime);
 
             // Create the output file to save report information
-            File outputFile = getOutputFile(inputMatrix.getName());
+            File outputFile = getOutputFile(outputFileWriter, inputMatrix.getName());
 
             // Write header information + [Pre-Processing report : optional] in the output report information
             outputFileWriter.writeOutputFile(headerOutputStringBuilder);
@@ -183,75 +414,113 @@ public class MinimalHittingSetFacade {
 
             HashMap<String, String> informationMBase = new HashMap<>();
 
+            // Write the header of the output matrix: the MHS are written as soon as they are found
+            outputFileWriter.writeOutputFile(buildOutputMatrixHeader());
+
             // Execution of MBase procedure
-            Matrix outputMatrix = solver.execute(inputMatrix, residualTime, outputFileWriter);
+            try (OutputMatrixWriter outputMatrixWriter = new OutputMatrixWriter(outputFileWriter.getOutputStream(), columnMapping, outputEncoding, verbose ? STD_OUT_MHS_LIMIT : 0)) {
+                solver.execute(inputMatrix, essentialCols.size(), residualTime, outputMatrixWriter);
+            }
 
             // Execution time of MBase procedure
             informationMBase.put("time", String.valueOf(solver.getExecutionTime()));
             // Consumed memory after MBase execution
             informationMBase.put("memory", String.valueOf(solver.getConsumedMemory()));
+            // Peak of the MBase queue
+            informationMBase.put("queueSize", String.valueOf(solver.getFrontierPeakSize()));
+            informationMBase.put("queueMemory", String.valueOf(bytesToKiloBytes(solver.getFrontierPeakMemory())));
             // OutOfTime flag
             informationMBase.put("outOfTime", String.valueOf(solver.isOutOfTime()));
             // OutOfMemory flag
             informationMBase.put("outOfMemory", String.valueOf(solver.isOutOfMemory()));
+            // Bounds of the search flags
+            informationMBase.put("cardinalityBound", String.valueOf(solver.isCardinalityBoundReached()));
+            informationMBase.put("limit", String.valueOf(solver.isLimitReached()));
             // Minimum cardinality found
             informationMBase.put("min", String.valueOf(solver.getMinCardinality()));
             // Maximum cardinality found
             informationMBase.put("max", String.valueOf(solver.getMaxCardinality()));
             // Number of MHS found
             informationMBase.put("mhs", String.valueOf(solver.getNumberMHSFound()));
+            // Number of connected components solved separately
+            informationMBase.put("components", String.valueOf(solver.getNumberOfComponents()));
+            // Number of columns solved by MBase (identical columns merged)
+            informationMBase.put("columnsSolved", String.valueOf(solver.getColumnsSolved()));
 
-            addMBaseInformationToStringJoiner(stringJoiner, informationMBase, initialRows, initialCols);
+            addMBaseInformationToRecord(csvRecord, informationMBase, initialRows, initialCols);
 
             printStatusInformation(MSG_WRITING_FILE);
 
-            outputFileWriter.writeOutputFile(buildOutputMatrixHeader(informationMBase));
+            // MBase execution OUT OF MEMORY
+            if (solver.isOutOfMemory()) {
+                // Write the cause of interruption
+                outputFileWriter.writeOutputFile(new StringBuilder("Execution interrupted > Cause: OUT OF MEMORY\n"));
+            }
+
+            // MBase execution OUT OF TIME
+            if (solver.isOutOfTime()) {
+                // Write the cause of interruption
+                outputFileWriter.writeOutputFile(new StringBuilder("Execution interrupted > Cause: OUT OF TIME\n"));
+            }
+
+            // MBase execution stopped by the maximum number of MHS
+            if (solver.isLimitReached()) {
+                // Write the cause of the stop
+                outputFileWriter.writeOutputFile(new StringBuilder("Execution stopped > Cause: LIMIT OF " + limit + " MHS REACHED\n"));
+            }
+
+            // MBase search bounded by the maximum cardinality
+            if (solver.isCardinalityBoundReached()) {
+                // Write the bound of the search
+                outputFileWriter.writeOutputFile(new StringBuilder("Search bounded > Cause: MAXIMUM CARDINALITY " + maxCardinality + " REACHED\n"));
+            }
 
-            if (errorWithOutputMatrix(outputMatrix, solver.isOutOfMemory(), solver.isOutOfTime())) {
+            if (errorWithOutputMatrix(solver)) {
                 System.err.println("Impossible to get output matrix (e.g. empty)");
                 outputFileWriter.writeOutputFile(new StringBuilder("Impossible to get output matrix (e.g. empty)\n"));
-            } else {
-                try {
-                    outputFileWriter.writeOutputMatrix(outputMatrix.getBoolMatrix(), colsRemoved, initialCols);
-                } catch (OutOfMemoryError me) {
-                    System.err.println("Build string of the output matrix failed > Cause: OUT OF MEMORY");
-                    outputFileWriter.writeOutputFile(new StringBuilder("Build string of the output matrix failed > Cause: OUT OF MEMORY\n"));
-                }
             }
 
-            if (verbose && !errorWithOutputMatrix(outputMatrix, solver.isOutOfMemory(), solver.isOutOfTime())) {
-                try {
-                    checkPrintOutputMatrix(outputMatrix.getBoolMatrix(), initialCols, colsRemoved);
-                } catch (OutOfMemoryError me) {
-                    System.err.println("Impossible to write output matrix on file .out > Cause: OUT OF MEMORY");
-                    outputFileWriter.writeOutputFile(new StringBuilder("Impossible to write output matrix on file .out > Cause: OUT OF MEMORY\n"));
-                }
-            }
+            outputFileWriter.writeOutputFile(buildMBaseInformation(informationMBase));
+            outputFileWriter.closeOutputFile();
 
             printStatusInformation(MSG_WRITING_CSV);
 
-            writeCSVInformationReport(csvPath.toFile().toString(), stringJoiner);
+            reportWriter.writeRecord(csvRecord.toArray(new String[0]));
 
-            // Call the garbage collector
-            System.gc();
+            // Call the garbage collector (not while other files are processed)
+            if (jobs == 1)
+                System.gc();
 
             // Print the final message on standard output
             System.out.println("For more details: " + outputFile.toString());
         }
+    }
 
+    /**
+     * Check if the output matrix is empty and some OutOfMemoryError (or timeout) occurred by calling the
+     * {@link MinimalHittingSetSolver#execute(Matrix, long, MinimalHittingSetSink) execute} method.
+     *
+     * @param solver the solver executed
+     * @return true if the output matrix is empty and some errors occurred
+     */
+    private boolean errorWithOutputMatrix(MinimalHittingSetSolver solver) {
+        return (solver.getNumberMHSFound() == 0 && (solver.isOutOfMemory() || solver.isOutOfTime()));
     }
 
     /**
-     * Check if the output matrix is empty or some OutOfMemoryError occurred by calling the
-     * {@link MinimalHittingSetSolver#execute(Matrix, long, OutputFileWriter)} execute } method.
+     * Create the StringBuilder of the header of the output matrix (the MHS are written during the MBase execution).
      *
-     * @param outputMatrix the output matrix
-     * @param outOfMemory
-     * @param outOfTime
-     * @return true if the output matrix is empty or some errors occurred
+     * @return the StringBuilder to write on output file
      */
-    private boolean errorWithOutputMatrix(Matrix outputMatrix, boolean outOfMemory, boolean outOfTime) {
-        return (outputMatrix.getBoolMatrix()[0].length == 1 && (outOfMemory || outOfTime));
+    private StringBuilder buildOutputMatrixHeader() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(DOUBLE_LINE).append("\n");
+        sb.append("\t\t\t\tMBase").append("\n");
+        sb.append(DOUBLE_LINE).append("\n");
+        sb.append(outputEncoding.getHeader()).append("\n");
+
+        return sb;
     }
 
     /**
@@ -260,18 +529,20 @@ public class MinimalHittingSetFacade {
      * @param information the HashMap of the information about MBase execution
      * @return the StringBuilder of information to write on output file
      */
-    private StringBuilder buildOutputMatrixHeader(HashMap<String, String> information) {
+    private StringBuilder buildMBaseInformation(HashMap<String, String> information) {
         StringBuilder sb = new StringBuilder();
 
-        sb.append(DOUBLE_LINE).append("\n");
-        sb.append("\t\t\t\tMBase").append("\n");
-        sb.append(DOUBLE_LINE).append("\n");
+        sb.append(LINE).append("\n");
         sb.append("Consumed memory (MBase): ").append(information.get("memory")).append(" MB\n");
+        sb.append("Queue peak (MBase): ").append(information.get("queueSize")).append(" subsets (").append(information.get("queueMemory")).append(" KB)\n");
         sb.append("MBase time: ").append(information.get("time")).append(" ms").append("\n");
+        if (decompose)
+            sb.append("Connected components: ").append(information.get("components")).append("\n");
+        if (compressColumns)
+            sb.append("Columns solved (identical columns merged): ").append(information.get("columnsSolved")).append("\n");
         sb.append("Minimum cardinality: ").append(information.get("min")).append("\n");
         sb.append("Maximum cardinality: ").append(information.get("max")).append("\n");
         sb.append("Number of MHS found: ").append(information.get("mhs")).append("\n");
-        sb.append(LINE + "\n" + "Output Matrix:\n");
 
         return sb;
     }
@@ -302,64 +573,71 @@ public class MinimalHittingSetFacade {
      * Method to print on the standard output the start of the execution and the number of files to process.
      *
      * @param numberOfFiles the number of files to process
-     * @throws InterruptedException
      */
-    private void printStartingMessage(int numberOfFiles) throws InterruptedException {
+    private void printStartingMessage(int numberOfFiles) {
         System.out.println("Number of benchmark files to process: " + numberOfFiles);
-        System.out.print("Starting");
-        for (int i = 0; i < 3; ++i) {
-            TimeUnit.MILLISECONDS.sleep(500);
-            System.out.print(".");
-        }
-        System.out.println();
-    }
+        System.out.println(jobs > 1 ? "Starting (" + jobs + " files at a time)..." : "Starting...");
 
-    /**
-     * Method to write the final report information on the CSV file.
-     *
-     * @param pathString   the path of the CSV file
-     * @param stringJoiner a StringJoiner object of information separated by commas
-     * @throws IOException
-     */
-    private void writeCSVInformationReport(String pathString, StringJoiner stringJoiner) throws IOException {
-        csvWriter.setWriter(new CSVWriter(new FileWriter(pathString, true)));
-        csvWriter.writeCSV(stringJoiner.toString().split(","));
+        // Files processed at the same time, each one with its threads
+        final int workers = Math.min(jobs, Math.max(numberOfFiles, 1)) * threads;
+        final int processors = Runtime.getRuntime().availableProcessors();
+        if (jobs > 1 && workers > processors)
+            System.err.println("WARNING: " + workers + " threads (jobs x threads) on " + processors + " processors: the execution times of the report are affected by the oversubscription");
     }
 
     /**
-     * Method to update the StringJoiner object with the all information about the MBase execution.
+     * Method to update the record of the report with the all information about the MBase execution.
      *
-     * @param stringJoiner the StringJoiner to update
+     * @param csvRecord    the values of the record to update
      * @param information  the information about the execution
      * @param initialRows  the number of rows of the matrix in the input file
      * @param initialCols  the number of columns of the matrix in the input file
      */
-    private void addMBaseInformationToStringJoiner(StringJoiner stringJoiner, HashMap<String, String> information, int initialRows, int initialCols) {
-        stringJoiner.add(information.get("time"));
-        stringJoiner.add(information.get("memory"));
-        stringJoiner.add(information.get("outOfTime"));
-        stringJoiner.add(information.get("outOfMemory"));
-        stringJoiner.add(String.valueOf(initialRows));
-        stringJoiner.add(String.valueOf(initialCols));
-        stringJoiner.add(information.get("min"));
-        stringJoiner.add(information.get("max"));
-        stringJoiner.add(information.get("mhs"));
+    private void addMBaseInformationToRecord(List<String> csvRecord, HashMap<String, String> information, int initialRows, int initialCols) {
+        csvRecord.add(information.get("time"));
+        csvRecord.add(information.get("memory"));
+        csvRecord.add(information.get("queueMemory"));
+        csvRecord.add(information.get("outOfTime"));
+        csvRecord.add(information.get("outOfMemory"));
+        csvRecord.add(information.get("cardinalityBound"));
+        csvRecord.add(information.get("limit"));
+        csvRecord.add(String.valueOf(initialRows));
+        csvRecord.add(String.valueOf(initialCols));
+        csvRecord.add(information.get("min"));
+        csvRecord.add(information.get("max"));
+        csvRecord.add(information.get("mhs"));
     }
 
     /**
      * Method to append the information about the pre-processing operation.
      *
-     * @param stringJoiner      the StringJoiner to update
+     * @param csvRecord         the values of the record to update
      * @param preProcessingTime the time to perform the pre-processing
      * @param memory            the memory consumed to perform the pre-processing
      * @param rowsRemoved       the number of rows removed
      * @param colsRemoved       the number of columns removed
+     * @param essentialCols     the number of essential columns (included in the columns removed)
+     * @param outOfTime         true if the pre-processing was interrupted by the time limit
+     * @param passes            the number of complete applications of the reductions
+     */
+    private void addPreProcessingInformationToRecord(List<String> csvRecord, long preProcessingTime, long memory, int rowsRemoved, int colsRemoved, int essentialCols, boolean outOfTime, int passes) {
+        csvRecord.add(String.valueOf(preProcessingTime));
+        csvRecord.add(String.valueOf(memory));
+        csvRecord.add(String.valueOf(rowsRemoved));
+        csvRecord.add(String.valueOf(colsRemoved));
+        csvRecord.add(String.valueOf(essentialCols));
+        csvRecord.add(String.valueOf(outOfTime));
+        csvRecord.add(String.valueOf(passes));
+    }
+
+    /**
+     * Method to convert Bytes into KBytes.
+     *
+     * @param bytes the value in bytes
+     * @return the value in KB
      */
-    private void addPreProcessingInformationToStringJoiner(StringJoiner stringJoiner, long preProcessingTime, long memory, int rowsRemoved, int colsRemoved) {
-        stringJoiner.add(String.valueOf(preProcessingTime));
-        stringJoiner.add(String.valueOf(memory));
-        stringJoiner.add(String.valueOf(rowsRemoved));
-        stringJoiner.add(String.valueOf(colsRemoved));
+    public static long bytesToKiloBytes(long bytes) {
+        return bytes / KILOBYTE;
     }
 
     /**
@@ -375,11 +653,12 @@ public class MinimalHittingSetFacade {
     /**
      * Method to create the output file path.
      *
+     * @param outputFileWriter the writer of the output file
      * @param inputMatrixName the name of the input matrix
      * @return a File object with the correct output path
      * @throws IOException
      */
-    private File getOutputFile(String inputMatrixName) throws IOException {
+    private File getOutputFile(OutputFileWriter outputFileWriter, String inputMatrixName) throws IOException {
         String outputFileName = (outputPath + "/" + inputMatrixName);
 
         // Create the output file
@@ -401,25 +680,26 @@ public class MinimalHittingSetFacade {
     }
 
     /**
-     * Method to create the CSV file if it does not exist and create the CSV header.
+     * Method to create the directory of the CSV file if it does not exist (the CSV file and its header are created by
+     * the OutputCSVWriter).
      *
-     * @param csvPath the path to CSV file
-     * @param writer  the OutputCSVWriter object to initialize the CSV header, if necessary
      * @throws IOException
      */
-    private void checkCSVPath(Path csvPath, OutputCSVWriter writer) throws IOException {
+    private void checkCSVPath() throws IOException {
         if (!Files.exists(Paths.get(PATH_TO_CSV))) // ./csv/ directory does not exist
             Files.createDirectories(Paths.get(PATH_TO_CSV));
+    }
 
-        if (!Files.exists(csvPath)) { // The file .csv does not exist
-            Files.createFile(csvPath);
-        }
+    /**
+     * Method to get the path of the JSON lines file, next to the CSV file.
+     *
+     * @param csvPath the path to CSV file
+     * @return the path with the same name and the extension .jsonl
+     */
+    private Path getJsonLinesPath(Path csvPath) {
+        final String name = csvPath.getFileName().toString();
 
-        if (csvPath.toFile().length() == 0) {
-            writer.setWriter(new CSVWriter(new FileWriter(csvPath.toFile().toString(), true)));
-            // Create the header of csv
-            writer.writeCSV(CSV_HEADER.split(","));
-        }
+        return csvPath.resolveSibling(name.substring(0, name.lastIndexOf('.')) + OutputCSVWriter.JSON_LINES_EXTENSION);
     }
 
     /**
@@ -450,26 +730,39 @@ public class MinimalHittingSetFacade {
      *
      * @param rowsRemoved       the number of rows removed
      * @param colsRemoved       the number of columns removed
-     * @param newInputIntMatrix the "new" matrix with the dimensions updated
+     * @param essentialCols     the essential columns (i.e. added to each MHS)
+     * @param newInputMatrix    the "new" matrix with the dimensions updated
      * @param timePP            the time of pre-processing execution
      * @param sb                the StringBuilder with the information of the output file header
      * @param memory            the memory consumed by the pre-processing procedure
+     * @param outOfTime         true if the pre-processing was interrupted by the time limit
+     * @param passes            the number of complete applications of the reductions
      */
-    private void buildPreProcessingInformation(ArrayList<Integer> rowsRemoved, ArrayList<Integer> colsRemoved, boolean[][] newInputIntMatrix, long timePP, StringBuilder sb, long memory) {
+    private void buildPreProcessingInformation(ArrayList<Integer> rowsRemoved, ArrayList<Integer> colsRemoved, ArrayList<Integer> essentialCols, Matrix newInputMatrix, long timePP, StringBuilder sb, long memory, boolean outOfTime, int passes) {
+        final int newRows = newInputMatrix.getRows();
+        final int newCols = newInputMatrix.getCols();
+
         sb.append("\t\t\tPre-Elaboration").append("\n");
         sb.append(DOUBLE_LINE).append("\n");
         sb.append("Consumed memory (Pre-Elaboration): ").append(memory).append("MB\n");
         sb.append("Pre-Elaboration time: ").append(timePP).append(" ms\n");
+        sb.append("Pre-Elaboration passes: ").append(passes).append("\n");
+        if (outOfTime)
+            sb.append("Pre-Elaboration interrupted > Cause: OUT OF TIME (matrix partially reduced)\n");
         sb.append("#Rows removed " + "(").append(rowsRemoved.size()).append(")").append(": ").append(rowsRemoved).append("\n");
         sb.append("#Columns removed " + "(").append(colsRemoved.size()).append(")").append(": ").append(colsRemoved).append("\n");
-        sb.append("Matrix Pre-Processed:\nSize: ").append(newInputIntMatrix.length).append("x").append(newInputIntMatrix[0].length).append("\n");
+        sb.append("#Essential columns " + "(").append(essentialCols.size()).append(")").append(": ").append(essentialCols).append("\n");
+        sb.append("Matrix Pre-Processed:\nSize: ").append(newRows).append("x").append(newCols).append("\n");
 
         if (verbose) {
             System.out.println("Pre-Processing time: " + timePP + " ms");
+            if (outOfTime)
+                System.out.println("Pre-Processing interrupted > Cause: OUT OF TIME (matrix partially reduced)");
             System.out.println("#Rows removed " + "(" + rowsRemoved.size() + ")" + ":\n" + rowsRemoved);
             System.out.println("#Columns removed " + "(" + colsRemoved.size() + ")" + ":\n" + colsRemoved);
-            System.out.println("Matrix Pre-Processed:\nSize: " + newInputIntMatrix.length + "x" + newInputIntMatrix[0].length);
-            printBoolMatrix(newInputIntMatrix, "");
+            System.out.println("#Essential columns " + "(" + essentialCols.size() + ")" + ":\n" + essentialCols);
+            System.out.println("Matrix Pre-Processed:\nSize: " + newRows + "x" + newCols);
+            printMatrix(newInputMatrix, "");
         }
     }
 
@@ -487,36 +780,13 @@ public class MinimalHittingSetFacade {
     }
 
     /**
-     * Method to generate the output matrix with the correct number of the initial input matrix columns
-     * and print the matrix.
+     * Method to print the matrix (dense or sparse) on the standard output.
      *
-     * @param matrix      the matrix to print
-     * @param initialCols the number of columns of the initial input matrix
-     * @param colsRemoved the list of columns removed by pre-processing, if executed
+     * @param matrix the matrix to print
+     * @param s      a descriptive string to print before of the matrix
      */
-    private void checkPrintOutputMatrix(boolean[][] matrix, int initialCols, ArrayList<Integer> colsRemoved) {
-        System.out.println(LINE);
-
-        if (matrix.length > STD_OUT_MHS_LIMIT) {
-            System.out.println("MHS matrix too large to print on standard output. Check the report file, please.");
-            return;
-        }
-
-        if (!preProcessing) {
-            printBoolMatrix(matrix, "Output Matrix:");
-            return;
-        }
-
-        boolean[][] outputMatrix = new boolean[matrix.length][initialCols];
-
-        for (int i = 0; i < matrix.length; i++) {
-            for (int j = 0, colCount = 0; j < initialCols; j++) {
-                if (!colsRemoved.contains(j))
-                    outputMatrix[i][j] = matrix[i][colCount++];
-            }
-        }
-
-        printBoolMatrix(outputMatrix, "Output Matrix:");
+    private static void printMatrix(Matrix matrix, String s) {
+        printBoolMatrix(matrix.isSparse() ? matrix.getSparseMatrix().toBoolMatrix() : matrix.getBoolMatrix(), s);
     }
 
     /**
@@ -5,6 +5,7 @@ import unibs.it.dii.utility.Args;
 public class Director {
 
     private static final int MILLISECONDS = 1000;
+    private static final long MEGABYTE = 1024L * 1024L;
 
     Args arguments;
 
@@ -24,6 +25,21 @@ public class Director {
         builder.setInputDirectoryPath(arguments.getDirectoryPath());
         builder.setTimeout(getMillis(arguments.getTimeout()));
         builder.setAutomaticMode(arguments.isAutomaticMode());
+        builder.setBitPacked(arguments.isBitPacked());
+        builder.setThreads(arguments.getThreads());
+        builder.setSpillBudget(getBytes(arguments.getSpillBudget()));
+        builder.setMaxCardinality(arguments.getMaxCardinality());
+        builder.setLimit(arguments.getLimit());
+        builder.setDepthFirst(arguments.isDepthFirst());
+        builder.setDecompose(arguments.isDecompose());
+        builder.setCompressColumns(arguments.isCompressColumns());
+        builder.setGzip(arguments.isGzip());
+        builder.setOutputEncoding(arguments.getOutputEncoding());
+        builder.setJsonLines(arguments.isJsonLines());
+        builder.setJobs(arguments.getJobs());
+        builder.setFork(arguments.isFork());
+        builder.setChildHeap(arguments.getChildHeap());
+        builder.setReportPipe(arguments.isReportPipe());
     }
 
     /**
@@ -35,4 +51,14 @@ public class Director {
     private long getMillis(long time) {
         return time * MILLISECONDS;
     }
+
+    /**
+     * Method to change the memory unit from megabytes to bytes.
+     *
+     * @param memory a memory value in MB
+     * @return the memory value in bytes
+     */
+    private long getBytes(long memory) {
+        return memory * MEGABYTE;
+    }
 }
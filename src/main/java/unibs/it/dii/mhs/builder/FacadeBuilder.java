@@ -1,5 +1,7 @@
 package unibs.it.dii.mhs.builder;
 
+import unibs.it.dii.utility.OutputEncoding;
+
 import java.nio.file.Path;
 
 public interface FacadeBuilder {
@@ -17,4 +19,34 @@ public interface FacadeBuilder {
 
     void setAutomaticMode(boolean automaticMode);
 
+    void setBitPacked(boolean bitPacked);
+
+    void setThreads(int threads);
+
+    void setSpillBudget(long spillBudget);
+
+    void setMaxCardinality(int maxCardinality);
+
+    void setLimit(long limit);
+
+    void setDepthFirst(boolean depthFirst);
+
+    void setDecompose(boolean decompose);
+
+    void setCompressColumns(boolean compressColumns);
+
+    void setGzip(boolean gzip);
+
+    void setOutputEncoding(OutputEncoding outputEncoding);
+
+    void setJsonLines(boolean jsonLines);
+
+    void setJobs(int jobs);
+
+    void setFork(boolean fork);
+
+    void setChildHeap(int childHeap);
+
+    void setReportPipe(boolean reportPipe);
+
 }
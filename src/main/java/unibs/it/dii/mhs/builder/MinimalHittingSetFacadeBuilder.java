@@ -1,6 +1,7 @@
 package unibs.it.dii.mhs.builder;
 
 import unibs.it.dii.mhs.MinimalHittingSetFacade;
+import unibs.it.dii.utility.OutputEncoding;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -13,9 +14,24 @@ public class MinimalHittingSetFacadeBuilder implements FacadeBuilder {
     private Path inputDirectoryPath;
     private long timeout;
     private boolean automaticMode;
+    private boolean bitPacked;
+    private int threads;
+    private long spillBudget;
+    private int maxCardinality;
+    private long limit;
+    private boolean depthFirst;
+    private boolean decompose;
+    private boolean compressColumns;
+    private boolean gzip;
+    private OutputEncoding outputEncoding;
+    private boolean jsonLines;
+    private int jobs;
+    private boolean fork;
+    private int childHeap;
+    private boolean reportPipe;
 
     public MinimalHittingSetFacade getMHS() throws IOException {
-        return new MinimalHittingSetFacade(preProcessing, verbosity, inputPath, outputPath, inputDirectoryPath, timeout, automaticMode);
+        return new MinimalHittingSetFacade(preProcessing, verbosity, inputPath, outputPath, inputDirectoryPath, timeout, automaticMode, bitPacked, threads, spillBudget, maxCardinality, limit, depthFirst, decompose, compressColumns, gzip, outputEncoding, jsonLines, jobs, fork, childHeap, reportPipe);
     }
 
     @Override
@@ -53,4 +69,79 @@ public class MinimalHittingSetFacadeBuilder implements FacadeBuilder {
         this.automaticMode = automaticMode;
     }
 
+    @Override
+    public void setBitPacked(boolean bitPacked) {
+        this.bitPacked = bitPacked;
+    }
+
+    @Override
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    public void setSpillBudget(long spillBudget) {
+        this.spillBudget = spillBudget;
+    }
+
+    @Override
+    public void setMaxCardinality(int maxCardinality) {
+        this.maxCardinality = maxCardinality;
+    }
+
+    @Override
+    public void setLimit(long limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public void setDepthFirst(boolean depthFirst) {
+        this.depthFirst = depthFirst;
+    }
+
+    @Override
+    public void setDecompose(boolean decompose) {
+        this.decompose = decompose;
+    }
+
+    @Override
+    public void setCompressColumns(boolean compressColumns) {
+        this.compressColumns = compressColumns;
+    }
+
+    @Override
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    @Override
+    public void setOutputEncoding(OutputEncoding outputEncoding) {
+        this.outputEncoding = outputEncoding;
+    }
+
+    @Override
+    public void setJsonLines(boolean jsonLines) {
+        this.jsonLines = jsonLines;
+    }
+
+    @Override
+    public void setJobs(int jobs) {
+        this.jobs = jobs;
+    }
+
+    @Override
+    public void setFork(boolean fork) {
+        this.fork = fork;
+    }
+
+    @Override
+    public void setChildHeap(int childHeap) {
+        this.childHeap = childHeap;
+    }
+
+    @Override
+    public void setReportPipe(boolean reportPipe) {
+        this.reportPipe = reportPipe;
+    }
+
 }
@@ -0,0 +1,54 @@
+package unibs.it.dii.mhs.model;
+
+/**
+ * This class represents a boolean matrix packed by columns: each column is a bitset (long[]) over the rows.
+ */
+public class BitMatrix {
+
+    private static final int WORD_SIZE = Long.SIZE;
+
+    private final long[][] columns;
+    private final int rows;
+    private final int cols;
+    private final int words;
+
+    public BitMatrix(boolean[][] matrix) {
+        this.rows = matrix.length;
+        this.cols = matrix[0].length;
+        this.words = getNumberOfWords(rows);
+        this.columns = new long[cols][words];
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (matrix[i][j])
+                    columns[j][i / WORD_SIZE] |= 1L << (i % WORD_SIZE); // Set the i-th bit of the j-th column
+            }
+        }
+    }
+
+    public long[] getColumn(int j) {
+        return columns[j];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Method to compute the number of words (long) needed to store a bitset.
+     *
+     * @param bits the number of bits
+     * @return the number of words
+     */
+    public static int getNumberOfWords(int bits) {
+        return (bits + WORD_SIZE - 1) / WORD_SIZE;
+    }
+}
@@ -0,0 +1,93 @@
+package unibs.it.dii.mhs.model;
+
+import java.util.Arrays;
+
+/**
+ * This class evaluates the subsets of lexicographical elements on a {@link BitMatrix}: the representative vector
+ * of the parent is kept as two bitsets over the rows (rows hit at least once, rows hit at least twice) and each
+ * child is checked with word-wide AND/OR operations instead of copying a submatrix.
+ */
+public class BitMatrixEvaluator implements CandidateEvaluator {
+
+    private final BitMatrix matrix;
+    // Rows hit by at least one element (i.e. RV != 0)
+    private final long[] covered;
+    // Rows hit by at least two elements (i.e. RV = x-value)
+    private final long[] multi;
+    // Elements of the parent
+    private final int[] parentElements;
+    private int parentSize;
+
+    public BitMatrixEvaluator(BitMatrix matrix) {
+        this.matrix = matrix;
+        this.covered = new long[matrix.getWords()];
+        this.multi = new long[matrix.getWords()];
+        this.parentElements = new int[matrix.getCols()];
+        this.parentSize = 0;
+    }
+
+    @Override
+    public void setParent(int[] elements, int size) {
+        final int words = matrix.getWords();
+
+        Arrays.fill(covered, 0L);
+        Arrays.fill(multi, 0L);
+
+        // Compute the representative vector of the parent
+        for (int k = 0; k < size; k++) {
+            final long[] col = matrix.getColumn(elements[k]);
+            for (int w = 0; w < words; w++) {
+                multi[w] |= covered[w] & col[w];
+                covered[w] |= col[w];
+            }
+            parentElements[k] = elements[k];
+        }
+        parentSize = size;
+    }
+
+    @Override
+    public int evaluateChild(int element) {
+        final int words = matrix.getWords();
+        final long[] col = matrix.getColumn(element);
+
+        // The new element must hit at least one row not hit by the parent
+        boolean projected = false;
+        int rowsCovered = 0;
+
+        for (int w = 0; w < words; w++) {
+            if ((col[w] & ~covered[w]) != 0)
+                projected = true;
+            rowsCovered += Long.bitCount(covered[w] | col[w]);
+        }
+
+        if (!projected)
+            return KO;
+
+        // Each element of the parent must still be the only one to hit at least one row (i.e. P(RV) = E)
+        for (int k = 0; k < parentSize; k++) {
+            if (!isProjected(matrix.getColumn(parentElements[k]), col, words))
+                return KO;
+        }
+
+        // RV does not contain 0
+        return rowsCovered == matrix.getRows() ? MHS : OK;
+    }
+
+    /**
+     * Method to check if an element of the parent still hits at least one row that is not hit by the other
+     * elements once the new element is added.
+     *
+     * @param col    the column (bitset) of the parent element
+     * @param newCol the column (bitset) of the element added to the parent
+     * @param words  the number of words of the bitsets
+     * @return true if the element is found inside the representative vector of the child
+     */
+    private boolean isProjected(long[] col, long[] newCol, int words) {
+        for (int w = 0; w < words; w++) {
+            if ((col[w] & ~multi[w] & ~newCol[w]) != 0)
+                return true;
+        }
+
+        return false;
+    }
+}
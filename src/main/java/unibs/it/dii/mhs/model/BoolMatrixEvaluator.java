@@ -0,0 +1,105 @@
+package unibs.it.dii.mhs.model;
+
+import java.util.Arrays;
+
+/**
+ * This class evaluates the subsets of lexicographical elements on the boolean input matrix: the representative
+ * vector of the parent is built by folding its columns into a reusable buffer, then each child is checked with a single
+ * scan of the column added. No memory is allocated during the evaluation.
+ */
+public class BoolMatrixEvaluator implements CandidateEvaluator {
+
+    private final boolean[][] matrix;
+    private final boolean debug;
+    // Representative vector of the parent
+    private final int[] parentRv;
+    // Elements of the parent
+    private final int[] parentElements;
+    private int parentSize;
+    // Number of rows hit only by each element of the parent (indexed by element)
+    private final int[] uniqueRows;
+    // Number of rows hit only by each element of the parent and also by the new element (indexed by element)
+    private final int[] lostRows;
+
+    public BoolMatrixEvaluator(boolean[][] matrix, boolean debug) {
+        this.matrix = matrix;
+        this.debug = debug;
+        this.parentRv = new int[matrix.length];
+        this.parentElements = new int[matrix[0].length];
+        this.parentSize = 0;
+        this.uniqueRows = new int[matrix[0].length];
+        this.lostRows = new int[matrix[0].length];
+    }
+
+    @Override
+    public void setParent(int[] elements, int size) {
+        parentSize = 0;
+
+        // Start from the RV of the empty subset: [0 0 ... 0]
+        Arrays.fill(parentRv, 0);
+
+        // Fold the columns of the elements into the representative vector
+        for (int k = 0; k < size; k++) {
+            final int element = elements[k];
+
+            for (int i = 0; i < matrix.length; i++) { // i = rows
+                if (!matrix[i][element])
+                    continue;
+
+                if (parentRv[i] == 0)
+                    parentRv[i] = element + 1; // Store the "real" value of the column
+                else
+                    parentRv[i] = -1; // x-value (i.e. the i-th set intersect at least 2 elements of the subset)
+            }
+
+            parentElements[parentSize++] = element;
+            uniqueRows[element] = 0;
+        }
+
+        if (debug)
+            System.out.println("RV: " + Arrays.toString(parentRv));
+
+        // Number of rows hit only by each element of the parent
+        for (int value : parentRv) {
+            if (value > 0)
+                uniqueRows[value - 1]++;
+        }
+    }
+
+    @Override
+    public int evaluateChild(int element) {
+        // The new element hits at least one row with RV = 0
+        boolean projected = false;
+        // RV of the child contains at least a 0
+        boolean empty = false;
+
+        for (int k = 0; k < parentSize; k++) {
+            lostRows[parentElements[k]] = 0;
+        }
+
+        // Scan the column of the new element against the RV of the parent
+        for (int i = 0; i < parentRv.length; i++) {
+            if (!matrix[i][element]) {
+                if (parentRv[i] == 0)
+                    empty = true;
+                continue;
+            }
+
+            if (parentRv[i] == 0)
+                projected = true;
+            else if (parentRv[i] > 0)
+                lostRows[parentRv[i] - 1]++; // The row becomes an x-value
+        }
+
+        if (!projected) // P(RV) != E
+            return KO;
+
+        // Each element of the parent must still be the only one to hit at least one row
+        for (int k = 0; k < parentSize; k++) {
+            if (lostRows[parentElements[k]] == uniqueRows[parentElements[k]]) // P(RV) != E
+                return KO;
+        }
+
+        return empty ? OK : MHS;
+    }
+}
@@ -0,0 +1,45 @@
+package unibs.it.dii.mhs.model;
+
+/**
+ * This interface represents the engine used by MBase to evaluate a subset of lexicographical elements
+ * (i.e. to compute its representative vector and scan it).
+ * <p>
+ * Each successor differs from its parent by exactly one element (column): the engine keeps the representative
+ * vector of the parent and derives the result of each child from the added column only.
+ */
+public interface CandidateEvaluator {
+
+    /**
+     * P(RV) != E
+     */
+    int KO = 0;
+
+    /**
+     * RV contains at least a 0 and P(RV) = E (i.e. MHS candidate)
+     */
+    int OK = 1;
+
+    /**
+     * RV does not contain 0 and P(RV) = E
+     */
+    int MHS = 2;
+
+    /**
+     * Method to compute the representative vector of the parent, namely the subset of lexicographical
+     * elements whose successors are going to be evaluated.
+     *
+     * @param elements the sorted indices of the elements of the subset
+     * @param size     the number of elements of the subset (it can be 0)
+     * @throws Exception
+     */
+    void setParent(int[] elements, int size) throws Exception;
+
+    /**
+     * Method to evaluate the subset made by the parent and one more element.
+     *
+     * @param element the index of the element (column) added to the parent
+     * @return MHS = 2, OK = 1, KO = 0
+     * @throws Exception
+     */
+    int evaluateChild(int element) throws Exception;
+}
@@ -0,0 +1,129 @@
+package unibs.it.dii.mhs.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class groups the identical columns of a matrix: a MHS contains at most one column of each group and any column
+ * of the group can replace it, so the MHS of the matrix are the ones of the matrix with one column per group (the
+ * first one) with each element replaced by each column of its group.
+ */
+public class ColumnClasses {
+
+    // Columns of each class (sorted), classes sorted by their first column
+    private final int[] members;
+    // Start of each class in members (one more entry for the end of the last class)
+    private final int[] offsets;
+
+    /**
+     * @param matrix the boolean matrix
+     */
+    public ColumnClasses(boolean[][] matrix) {
+        final int rows = matrix.length;
+        final int cols = rows > 0 ? matrix[0].length : 0;
+        final int words = (rows + Long.SIZE - 1) / Long.SIZE;
+
+        final HashMap<Column, Integer> classOfColumn = new HashMap<>();
+        final int[] classes = new int[cols];
+        final int[] classSize = new int[cols];
+
+        for (int j = 0; j < cols; j++) {
+            final long[] bits = new long[words];
+            for (int i = 0; i < rows; i++) {
+                if (matrix[i][j])
+                    bits[i >>> 6] |= 1L << i;
+            }
+
+            Integer k = classOfColumn.get(new Column(bits));
+            if (k == null) {
+                k = classOfColumn.size();
+                classOfColumn.put(new Column(bits), k);
+            }
+            classes[j] = k;
+            classSize[k]++;
+        }
+
+        final int numberOfClasses = classOfColumn.size();
+
+        offsets = new int[numberOfClasses + 1];
+        for (int k = 0; k < numberOfClasses; k++) {
+            offsets[k + 1] = offsets[k] + classSize[k];
+        }
+
+        members = new int[cols];
+        final int[] count = Arrays.copyOf(offsets, numberOfClasses);
+        for (int j = 0; j < cols; j++) {
+            members[count[classes[j]]++] = j;
+        }
+    }
+
+    public int getNumberOfClasses() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return true if at least two columns are identical
+     */
+    public boolean hasIdenticalColumns() {
+        return getNumberOfClasses() < members.length;
+    }
+
+    /**
+     * @param k the index of the class
+     * @return the number of columns of the class
+     */
+    public int getClassSize(int k) {
+        return offsets[k + 1] - offsets[k];
+    }
+
+    /**
+     * @param k     the index of the class
+     * @param index the index of the column in the class
+     * @return the column of the matrix
+     */
+    public int getMember(int k, int index) {
+        return members[offsets[k] + index];
+    }
+
+    /**
+     * Method to build the matrix with only the first column of each class (the column k is the one of the class k).
+     *
+     * @param matrix the boolean matrix
+     * @return the compressed boolean matrix
+     */
+    public boolean[][] getMatrix(boolean[][] matrix) {
+        final int numberOfClasses = getNumberOfClasses();
+        final boolean[][] compressedMatrix = new boolean[matrix.length][numberOfClasses];
+
+        for (int i = 0; i < matrix.length; i++) {
+            for (int k = 0; k < numberOfClasses; k++) {
+                compressedMatrix[i][k] = matrix[i][members[offsets[k]]];
+            }
+        }
+
+        return compressedMatrix;
+    }
+
+    /**
+     * Bits of a column used as key of the HashMap.
+     */
+    private static final class Column {
+        private final long[] bits;
+        private final int hash;
+
+        private Column(long[] bits) {
+            this.bits = bits;
+            this.hash = Arrays.hashCode(bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Column && Arrays.equals(bits, ((Column) o).bits);
+        }
+    }
+}
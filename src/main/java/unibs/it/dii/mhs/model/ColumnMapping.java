@@ -0,0 +1,87 @@
+package unibs.it.dii.mhs.model;
+
+/**
+ * This class maps the columns of the matrix pre-processed to the columns of the input matrix and vice versa: both
+ * directions are stored in an array, so each mapping takes constant time.
+ */
+public class ColumnMapping {
+
+    // Column of the input matrix of each column of the matrix pre-processed
+    private final int[] originalCols;
+    // Column of the matrix pre-processed of each column of the input matrix (-1 if removed)
+    private final int[] reducedCols;
+    // Columns of the input matrix removed as essential (added to each MHS)
+    private final boolean[] essential;
+
+    /**
+     * Identity mapping (no column removed).
+     *
+     * @param cols the number of columns of the input matrix
+     */
+    public ColumnMapping(int cols) {
+        this(new boolean[cols], new boolean[cols]);
+    }
+
+    /**
+     * @param removedCols   the columns of the input matrix removed, essential columns included
+     * @param essentialCols the columns of the input matrix removed as essential
+     */
+    public ColumnMapping(boolean[] removedCols, boolean[] essentialCols) {
+        int reducedCount = 0;
+        for (boolean removed : removedCols) {
+            if (!removed)
+                reducedCount++;
+        }
+
+        this.originalCols = new int[reducedCount];
+        this.reducedCols = new int[removedCols.length];
+        this.essential = essentialCols;
+
+        for (int j = 0, count = 0; j < removedCols.length; j++) {
+            if (removedCols[j]) {
+                reducedCols[j] = -1;
+            } else {
+                originalCols[count] = j;
+                reducedCols[j] = count++;
+            }
+        }
+    }
+
+    /**
+     * @return the number of columns of the input matrix
+     */
+    public int getOriginalCols() {
+        return reducedCols.length;
+    }
+
+    /**
+     * @return the number of columns of the matrix pre-processed
+     */
+    public int getReducedCols() {
+        return originalCols.length;
+    }
+
+    /**
+     * @param reducedCol a column of the matrix pre-processed
+     * @return the column of the input matrix
+     */
+    public int toOriginal(int reducedCol) {
+        return originalCols[reducedCol];
+    }
+
+    /**
+     * @param originalCol a column of the input matrix
+     * @return the column of the matrix pre-processed (-1 if removed)
+     */
+    public int toReduced(int originalCol) {
+        return reducedCols[originalCol];
+    }
+
+    /**
+     * @param originalCol a column of the input matrix
+     * @return true if the column was removed as essential, i.e. it belongs to each MHS
+     */
+    public boolean isEssential(int originalCol) {
+        return essential[originalCol];
+    }
+}
@@ -0,0 +1,161 @@
+package unibs.it.dii.mhs.model;
+
+import java.util.Arrays;
+
+/**
+ * This class finds the connected components of the bipartite graph rows/columns of a matrix: two columns are in the
+ * same component if a row hits both of them. Each MHS of the matrix is the union of one MHS of each component.
+ */
+public class ConnectedComponents {
+
+    // Rows of each component (sorted)
+    private final int[][] componentRows;
+    // Columns of each component (sorted)
+    private final int[][] componentCols;
+
+    /**
+     * @param matrix the boolean matrix (with at least one row)
+     */
+    public ConnectedComponents(boolean[][] matrix) {
+        final int rows = matrix.length;
+        final int cols = matrix[0].length;
+
+        // Union-find of the columns
+        final int[] parent = new int[cols];
+        for (int j = 0; j < cols; j++) {
+            parent[j] = j;
+        }
+
+        // First column of each row (-1 if the row is empty)
+        final int[] firstCol = new int[rows];
+        boolean emptyRow = false;
+
+        for (int i = 0; i < rows; i++) {
+            firstCol[i] = -1;
+
+            for (int j = 0; j < cols; j++) {
+                if (!matrix[i][j])
+                    continue;
+
+                if (firstCol[i] < 0)
+                    firstCol[i] = j;
+                else
+                    union(parent, firstCol[i], j);
+            }
+
+            emptyRow |= firstCol[i] < 0;
+        }
+
+        if (emptyRow) { // No MHS: the matrix is not split
+            componentRows = new int[][]{range(rows)};
+            componentCols = new int[][]{range(cols)};
+            return;
+        }
+
+        // Index of the component of each root (components sorted by their first column)
+        final int[] componentOfRoot = new int[cols];
+        Arrays.fill(componentOfRoot, -1);
+        final int[] colsPerComponent = new int[cols];
+        final int[] rowsPerComponent = new int[cols];
+        int numberOfComponents = 0;
+
+        for (int i = 0; i < rows; i++) {
+            final int root = find(parent, firstCol[i]);
+            if (componentOfRoot[root] < 0)
+                componentOfRoot[root] = -2; // Root of a component with at least one row
+        }
+
+        for (int j = 0; j < cols; j++) {
+            final int root = find(parent, j);
+            if (componentOfRoot[root] == -2)
+                componentOfRoot[root] = numberOfComponents++;
+            if (componentOfRoot[root] >= 0) // Empty columns do not belong to any component
+                colsPerComponent[componentOfRoot[root]]++;
+        }
+
+        for (int i = 0; i < rows; i++) {
+            rowsPerComponent[componentOfRoot[find(parent, firstCol[i])]]++;
+        }
+
+        componentRows = new int[numberOfComponents][];
+        componentCols = new int[numberOfComponents][];
+        for (int k = 0; k < numberOfComponents; k++) {
+            componentRows[k] = new int[rowsPerComponent[k]];
+            componentCols[k] = new int[colsPerComponent[k]];
+        }
+
+        final int[] count = new int[numberOfComponents];
+        for (int j = 0; j < cols; j++) {
+            final int k = componentOfRoot[find(parent, j)];
+            if (k >= 0)
+                componentCols[k][count[k]++] = j;
+        }
+
+        Arrays.fill(count, 0);
+        for (int i = 0; i < rows; i++) {
+            final int k = componentOfRoot[find(parent, firstCol[i])];
+            componentRows[k][count[k]++] = i;
+        }
+    }
+
+    public int getNumberOfComponents() {
+        return componentCols.length;
+    }
+
+    /**
+     * @param component the index of the component
+     * @return the columns of the component (sorted), i.e. the mapping from the columns of its matrix to the ones of
+     * the whole matrix
+     */
+    public int[] getCols(int component) {
+        return componentCols[component];
+    }
+
+    /**
+     * Method to build the submatrix of a component.
+     *
+     * @param matrix    the whole boolean matrix
+     * @param component the index of the component
+     * @return the boolean matrix with the only rows and columns of the component
+     */
+    public boolean[][] getMatrix(boolean[][] matrix, int component) {
+        final int[] rows = componentRows[component];
+        final int[] cols = componentCols[component];
+        final boolean[][] subMatrix = new boolean[rows.length][cols.length];
+
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < cols.length; j++) {
+                subMatrix[i][j] = matrix[rows[i]][cols[j]];
+            }
+        }
+
+        return subMatrix;
+    }
+
+    private static int find(int[] parent, int j) {
+        while (parent[j] != j) {
+            parent[j] = parent[parent[j]]; // Path halving
+            j = parent[j];
+        }
+        return j;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        final int rootA = find(parent, a);
+        final int rootB = find(parent, b);
+
+        // The smallest column is the root
+        if (rootA < rootB)
+            parent[rootB] = rootA;
+        else if (rootB < rootA)
+            parent[rootA] = rootB;
+    }
+
+    private static int[] range(int n) {
+        final int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+}
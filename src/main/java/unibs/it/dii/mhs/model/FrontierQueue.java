@@ -0,0 +1,153 @@
+package unibs.it.dii.mhs.model;
+
+import java.util.ArrayDeque;
+
+/**
+ * This class implements the FIFO queue of MBase: each subset of lexicographical elements is stored as the sorted
+ * list of its element indices (preceded by its size) inside large chunks of int, used as a ring buffer.
+ */
+public class FrontierQueue {
+
+    // Number of int stored in each chunk (256 KB)
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int BYTES_PER_INT = Integer.BYTES;
+
+    private final ArrayDeque<int[]> chunks;
+    // Drained chunk kept to be reused by the tail of the queue
+    private int[] spareChunk;
+    // Position of the next int to read in the first chunk
+    private int head;
+    // Position of the next int to write in the last chunk
+    private int tail;
+    // Number of subsets stored
+    private long size;
+    // Maximum number of subsets stored at the same time
+    private long peakSize;
+    // Maximum number of bytes allocated at the same time
+    private long peakMemory;
+
+    public FrontierQueue() {
+        this.chunks = new ArrayDeque<>();
+        reset();
+        this.peakSize = 0;
+        this.peakMemory = 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getPeakSize() {
+        return peakSize;
+    }
+
+    /**
+     * @return the number of bytes currently allocated by the queue
+     */
+    public long getMemory() {
+        return (long) (chunks.size() + (spareChunk != null ? 1 : 0)) * CHUNK_SIZE * BYTES_PER_INT;
+    }
+
+    /**
+     * @return the maximum number of bytes allocated by the queue
+     */
+    public long getPeakMemory() {
+        return peakMemory;
+    }
+
+    /**
+     * Method to add a subset of lexicographical elements at the end of the queue.
+     *
+     * @param elements the sorted indices of the elements
+     * @param length   the number of elements
+     */
+    public void add(int[] elements, int length) {
+        write(length);
+        for (int k = 0; k < length; k++) {
+            write(elements[k]);
+        }
+        updatePeak();
+    }
+
+    /**
+     * Method to add a successor (i.e. a subset of lexicographical elements plus one more element) at the end of
+     * the queue.
+     *
+     * @param elements the sorted indices of the elements of the parent
+     * @param length   the number of elements of the parent
+     * @param element  the index of the element added (greater than the last element of the parent)
+     */
+    public void addSuccessor(int[] elements, int length, int element) {
+        write(length + 1);
+        for (int k = 0; k < length; k++) {
+            write(elements[k]);
+        }
+        write(element);
+        updatePeak();
+    }
+
+    /**
+     * Method to remove the first subset of lexicographical elements of the queue.
+     *
+     * @param elements the array where to copy the indices of the elements (length >= number of elements)
+     * @return the number of elements of the subset removed
+     */
+    public int poll(int[] elements) {
+        int length = read();
+        for (int k = 0; k < length; k++) {
+            elements[k] = read();
+        }
+        size--;
+
+        return length;
+    }
+
+    /**
+     * Method to remove all the subsets and release the memory.
+     */
+    public void clear() {
+        reset();
+    }
+
+    private void reset() {
+        chunks.clear();
+        spareChunk = null;
+        head = 0;
+        tail = CHUNK_SIZE; // The first write allocates a new chunk
+        size = 0;
+    }
+
+    private void write(int value) {
+        if (tail == CHUNK_SIZE) {
+            chunks.addLast(spareChunk != null ? spareChunk : new int[CHUNK_SIZE]);
+            spareChunk = null;
+            tail = 0;
+        }
+        chunks.peekLast()[tail++] = value;
+    }
+
+    private int read() {
+        if (head == CHUNK_SIZE) {
+            spareChunk = chunks.pollFirst(); // Reuse the drained chunk
+            head = 0;
+        }
+        int value = chunks.peekFirst()[head++];
+
+        if (chunks.size() == 1 && head == tail) { // Empty: restart from the beginning of the chunk
+            head = 0;
+            tail = 0;
+        }
+
+        return value;
+    }
+
+    private void updatePeak() {
+        size++;
+        peakSize = Math.max(peakSize, size);
+        peakMemory = Math.max(peakMemory, getMemory());
+    }
+}
@@ -1,23 +1,53 @@
 package unibs.it.dii.mhs.model;
 
 /**
- * This class represents a matrix, namely the input of the MBase algorithm.
+ * This class represents a matrix, namely the input of the MBase algorithm: it is stored either as a dense boolean
+ * matrix or as a sparse matrix (only one of them is set).
  */
 public class Matrix {
 
     private boolean[][] boolMatrix;
+    private SparseMatrix sparseMatrix;
     private String name;
 
     public Matrix(boolean[][] matrix) {
         this.boolMatrix = matrix;
     }
 
+    public Matrix(SparseMatrix matrix) {
+        this.sparseMatrix = matrix;
+    }
+
     public Matrix() {
 
     }
 
     public void setBoolMatrix(boolean[][] boolMatrix) {
         this.boolMatrix = boolMatrix;
+        this.sparseMatrix = null;
+    }
+
+    public void setSparseMatrix(SparseMatrix sparseMatrix) {
+        this.sparseMatrix = sparseMatrix;
+        this.boolMatrix = null;
+    }
+
+    public SparseMatrix getSparseMatrix() {
+        return sparseMatrix;
+    }
+
+    public boolean isSparse() {
+        return sparseMatrix != null;
+    }
+
+    public int getRows() {
+        return isSparse() ? sparseMatrix.getRows() : boolMatrix.length;
+    }
+
+    public int getCols() {
+        if (isSparse())
+            return sparseMatrix.getCols();
+        return boolMatrix.length > 0 ? boolMatrix[0].length : 0;
     }
 
     public boolean[][] getBoolMatrix() {
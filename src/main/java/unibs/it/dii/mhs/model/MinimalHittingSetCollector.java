@@ -0,0 +1,65 @@
+package unibs.it.dii.mhs.model;
+
+import java.util.Arrays;
+
+/**
+ * This class stores the MHS found in memory (packed in a single array of elements), optionally mapping their
+ * elements to different indices (e.g. from the columns of a component to the ones of the whole matrix).
+ */
+public class MinimalHittingSetCollector implements MinimalHittingSetSink {
+
+    // Index of each element inside the matrix of the MHS stored (null = same index)
+    private final int[] mapping;
+    // Elements of all the MHS, one after the other
+    private int[] elements;
+    // Start of each MHS inside elements (offsets[k + 1] is the end of the k-th MHS)
+    private int[] offsets;
+    private int size;
+
+    /**
+     * @param mapping the index of each element inside the matrix of the MHS stored (null = same index)
+     */
+    public MinimalHittingSetCollector(int[] mapping) {
+        this.mapping = mapping;
+        this.elements = new int[64];
+        this.offsets = new int[16];
+        this.size = 0;
+    }
+
+    @Override
+    public void accept(int[] mhs, int mhsSize) {
+        final int start = offsets[size];
+
+        if (start + mhsSize > elements.length)
+            elements = Arrays.copyOf(elements, Math.max(2 * elements.length, start + mhsSize));
+        if (size + 2 > offsets.length)
+            offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+
+        for (int k = 0; k < mhsSize; k++) {
+            elements[start + k] = mapping != null ? mapping[mhs[k]] : mhs[k];
+        }
+
+        offsets[++size] = start + mhsSize;
+    }
+
+    /**
+     * @return the number of MHS stored
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method to copy the elements of a MHS stored.
+     *
+     * @param index     the index of the MHS
+     * @param dest      the destination array
+     * @param destStart the first position of the destination array
+     * @return the number of elements of the MHS
+     */
+    public int get(int index, int[] dest, int destStart) {
+        final int length = offsets[index + 1] - offsets[index];
+        System.arraycopy(elements, offsets[index], dest, destStart, length);
+        return length;
+    }
+}
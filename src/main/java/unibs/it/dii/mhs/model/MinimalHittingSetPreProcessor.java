@@ -1,45 +1,270 @@
 package unibs.it.dii.mhs.model;
 
-import com.google.common.primitives.Booleans;
-
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 /**
- * This class implements the Pre-Processing procedure in order to simplify the input matrix instance.
+ * This class implements the Pre-Processing procedure in order to simplify the input matrix instance. The reductions
+ * below are applied until none of them changes the matrix (fixpoint):
+ * <ul>
+ *     <li>a row that contains another row (or is equal to a following row) is removed;</li>
+ *     <li>an empty column is removed;</li>
+ *     <li>the element of a row with only one element belongs to each MHS (essential element): its column and the rows
+ *     it hits are removed, then it must be added back to each MHS of the matrix pre-processed.</li>
+ * </ul>
+ * If a time limit is given, it is checked between the rows compared and between the steps: when it expires, the
+ * reductions already done are kept and the matrix returned is valid, but it may be reduced further.
+ * <p>
+ * The reductions are applied to a dense matrix (rows packed in words of bits) or to a {@link SparseMatrix} (rows as
+ * sorted lists of columns): the matrix pre-processed has the same representation of the input one.
  */
 public class MinimalHittingSetPreProcessor {
 
+    // Number of rows (or columns) processed sequentially by a single task (parallel mode)
+    final static private int PARALLEL_LEAF_SIZE = 256;
+
     private final ArrayList<Integer> rowsToRemove;
     private final ArrayList<Integer> colsToRemove;
+    private final ArrayList<Integer> essentialCols;
+    // Mapping of the columns of the matrix pre-processed to the ones of the input matrix
+    private ColumnMapping columnMapping;
     private final boolean debug;
+    private final int threads;
+    // Pool of workers of the current execution (null if sequential)
+    private ForkJoinPool pool;
+    // Time limit of the current execution (Long.MAX_VALUE if no limit)
+    private long deadline;
+    private volatile boolean outOfTime;
+    // Number of complete applications of the reductions
+    private int passes;
 
     public MinimalHittingSetPreProcessor(boolean debug) {
+        this(debug, 1);
+    }
+
+    /**
+     * @param debug   print the information of each step of the Pre-Processing
+     * @param threads the number of threads used to compare the rows and to scan the columns (1 = sequential execution)
+     */
+    public MinimalHittingSetPreProcessor(boolean debug, int threads) {
         this.rowsToRemove = new ArrayList<>();
         this.colsToRemove = new ArrayList<>();
+        this.essentialCols = new ArrayList<>();
         this.debug = debug;
+        this.threads = threads;
     }
 
     public ArrayList<Integer> getRowsToRemove() {
         return rowsToRemove;
     }
 
+    /**
+     * @return the columns removed, essential columns included
+     */
     public ArrayList<Integer> getColsToRemove() {
         return colsToRemove;
     }
 
+    /**
+     * @return the columns of the essential elements, to add to each MHS of the matrix pre-processed
+     */
+    public ArrayList<Integer> getEssentialCols() {
+        return essentialCols;
+    }
+
+    /**
+     * @return the mapping of the columns of the matrix pre-processed to the ones of the input matrix (and vice versa)
+     */
+    public ColumnMapping getColumnMapping() {
+        return columnMapping;
+    }
+
+    /**
+     * @return true if the time limit expired before the fixpoint, i.e. the matrix may be reduced further
+     */
+    public boolean isOutOfTime() {
+        return outOfTime;
+    }
+
+    /**
+     * @return the number of complete applications of the reductions (the last one does not change the matrix, unless
+     * the time limit expired)
+     */
+    public int getPasses() {
+        return passes;
+    }
+
     /**
      * Method to execute the Pre-Elaboration procedure on the input matrix.
      *
      * @param matrix the boolean matrix to pre-process
-     * @return a boolean matrix pre-processed
+     * @return a boolean matrix pre-processed (with no rows if the essential elements are a MHS)
      */
     public boolean[][] execute(boolean[][] matrix) {
+        return execute(matrix, 0);
+    }
+
+    /**
+     * Method to execute the Pre-Elaboration procedure on the input matrix within a time limit.
+     *
+     * @param matrix  the boolean matrix to pre-process
+     * @param timeout the time limit in milliseconds (0 = no limit)
+     * @return a boolean matrix pre-processed (with no rows if the essential elements are a MHS)
+     */
+    public boolean[][] execute(boolean[][] matrix, long timeout) {
         reset();
-        boolean[][] newMatrix = removeRows(matrix);
-        return removeCols(newMatrix);
+
+        deadline = getDeadline(timeout);
+
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+
+        try {
+            final int rows = matrix.length;
+            final int cols = matrix[0].length;
+
+            // Bit-packed rows: the subset test is a sequence of AND NOT between words
+            final long[][] bits = new long[rows][];
+            forEach(0, rows, i -> bits[i] = packRow(matrix[i]));
+
+            final boolean[] removedRows = reduce(new DenseRows(bits), cols);
+
+            boolean[][] newMatrix = new boolean[rows - rowsToRemove.size()][columnMapping.getReducedCols()];
+
+            resizeMatrix(matrix, newMatrix, removedRows);
+
+            if (debug) {
+                System.out.println("Essential columns: " + essentialCols);
+                printBoolMatrix(newMatrix);
+            }
+
+            return newMatrix;
+        } finally {
+            if (pool != null)
+                pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    /**
+     * Method to execute the Pre-Elaboration procedure on a sparse input matrix within a time limit: the matrix is
+     * never converted into the dense one.
+     *
+     * @param matrix  the sparse matrix to pre-process
+     * @param timeout the time limit in milliseconds (0 = no limit)
+     * @return a sparse matrix pre-processed (with no rows if the essential elements are a MHS)
+     */
+    public SparseMatrix execute(SparseMatrix matrix, long timeout) {
+        reset();
+
+        deadline = getDeadline(timeout);
+
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+
+        try {
+            final boolean[] removedRows = reduce(new SparseRows(matrix), matrix.getCols());
+
+            // The rows not removed only hit the columns not removed
+            final int[] rowStart = matrix.getRowStart();
+            final int[] rowCols = matrix.getRowCols();
+            final int newRows = matrix.getRows() - rowsToRemove.size();
+            final int[] newRowStart = new int[newRows + 1];
+            int nonZeros = 0;
+
+            for (int i = 0, rowCount = 0; i < matrix.getRows(); i++) {
+                if (!removedRows[i]) {
+                    nonZeros += rowStart[i + 1] - rowStart[i];
+                    newRowStart[++rowCount] = nonZeros;
+                }
+            }
+
+            final int[] newRowCols = new int[nonZeros];
+            for (int i = 0, p = 0; i < matrix.getRows(); i++) {
+                if (removedRows[i])
+                    continue;
+
+                for (int q = rowStart[i]; q < rowStart[i + 1]; q++) {
+                    newRowCols[p++] = columnMapping.toReduced(rowCols[q]);
+                }
+            }
+
+            final SparseMatrix newMatrix = new SparseMatrix(newRows, columnMapping.getReducedCols(), newRowStart, newRowCols);
+
+            if (debug) {
+                System.out.println("Essential columns: " + essentialCols);
+                printBoolMatrix(newMatrix.toBoolMatrix());
+            }
+
+            return newMatrix;
+        } finally {
+            if (pool != null)
+                pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    /**
+     * Method to apply the reductions until the fixpoint (or the time limit): the lists of rows and columns removed and
+     * the mapping of the columns are updated.
+     *
+     * @param matrixRows the rows of the input matrix
+     * @param cols       the number of columns
+     * @return the rows removed
+     */
+    private boolean[] reduce(Rows matrixRows, int cols) {
+        final int rows = matrixRows.size();
+
+        // Number of elements of each row
+        final int[] cardinality = new int[rows];
+        // Signature of each row: if row1 is a subset of row2, also its signature is a subset of the other one
+        final long[] signature = new long[rows];
+
+        forEach(0, rows, i -> {
+            cardinality[i] = matrixRows.cardinality(i);
+            signature[i] = matrixRows.signature(i);
+        });
+
+        // The reductions only mark the rows and columns removed: a row not removed never hits a column removed,
+        // so the rows of the input matrix are still valid for the matrix reduced
+        final boolean[] removedRows = new boolean[rows];
+        final boolean[] removedCols = new boolean[cols];
+        final boolean[] essential = new boolean[cols];
+
+        boolean reduced;
+        do {
+            reduced = removeRows(matrixRows, cardinality, signature, removedRows, cols);
+            reduced |= removeEmptyCols(matrixRows, removedRows, removedCols);
+            reduced |= removeEssentialCols(matrixRows, cardinality, removedRows, removedCols, essential);
+            if (!outOfTime)
+                passes++;
+        } while (reduced && !isOverDeadline());
+
+        for (int i = 0; i < rows; i++) {
+            if (removedRows[i]) {
+                if (debug)
+                    System.out.println("Row" + i + ": " + matrixRows.toString(i) + "\nremove row" + i);
+
+                rowsToRemove.add(i); // Update the list with the rows removed
+            }
+        }
+
+        for (int j = 0; j < cols; j++) {
+            if (removedCols[j])
+                colsToRemove.add(j);
+
+            if (essential[j])
+                essentialCols.add(j);
+        }
+
+        columnMapping = new ColumnMapping(removedCols, essential);
+
+        return removedRows;
     }
 
     /**
@@ -48,116 +273,281 @@ public class MinimalHittingSetPreProcessor {
     private void reset() {
         this.rowsToRemove.clear();
         this.colsToRemove.clear();
+        this.essentialCols.clear();
+        this.outOfTime = false;
+        this.passes = 0;
     }
 
     /**
-     * Method to remove rows from the input matrix.
+     * Method to compute the deadline of the execution, saturated to Long.MAX_VALUE if the sum overflows.
      *
-     * @param matrix the input matrix
-     * @return a matrix with a number of rows <= inputMatrix.length
+     * @param timeout the time limit in milliseconds (0 = no limit)
+     * @return the deadline in milliseconds
      */
-    private boolean[][] removeRows(boolean[][] matrix) {
-        int cols = matrix[0].length;
-        // Create the object to collect all rows to removed (without duplicated)
-        final Set<Integer> rowsToRemoveSet = new HashSet<>();
+    private static long getDeadline(long timeout) {
+        final long now = System.currentTimeMillis();
 
-        for (int i = 0; i < matrix.length; i++) {
-            for (int j = i + 1; j < matrix.length; j++) { // Compare with the all next rows of input matrix
+        return timeout > 0 && timeout <= Long.MAX_VALUE - now ? now + timeout : Long.MAX_VALUE;
+    }
 
-                if (rowsToRemoveSet.contains(i) || rowsToRemoveSet.contains(j)) // Rows is already added
-                    continue;
+    /**
+     * Method to check the time limit (cooperative interruption).
+     *
+     * @return true if the time limit is expired
+     */
+    private boolean isOverDeadline() {
+        if (!outOfTime && System.currentTimeMillis() > deadline) {
+            if (debug)
+                System.out.println("Pre-Elaboration interrupted > Cause: OUT OF TIME");
 
-                if (checkRow(matrix[i], matrix[j], cols) == -1) {
-                    if (debug) {
-                        System.out.println("Row" + i + ": " + Arrays.toString(matrix[i]) + "\nRow" + j + ": " + Arrays.toString(matrix[j]));
-                        System.out.println("do not remove");
-                    }
-                }
+            outOfTime = true;
+        }
 
-                if (checkRow(matrix[i], matrix[j], cols) == 1 || checkRow(matrix[i], matrix[j], cols) == 0) // N_j is a subset of N_i or are the same (check=0)
-                {
-                    if (debug) {
-                        System.out.println("Row" + i + ": " + Arrays.toString(matrix[i]) + "\nRow" + j + ": " + Arrays.toString(matrix[j]));
-                        System.out.println("remove row" + i);
-                    }
-                    rowsToRemoveSet.add(i);
-                    continue;
-                }
+        return outOfTime;
+    }
 
-                if (checkRow(matrix[i], matrix[j], cols) == 2) // N_i is a subset of N_j
-                {
-                    if (debug) {
-                        System.out.println("Row" + i + ": " + Arrays.toString(matrix[i]) + "\nRow" + j + ": " + Arrays.toString(matrix[j]));
-                        System.out.println("remove row" + j);
-                    }
-                    rowsToRemoveSet.add(j);
-                }
+    /**
+     * Method to remove rows from the matrix: a row is removed if it contains another row (i.e. it is hit by each
+     * MHS of the smaller one) or if it is equal to a following row (i.e. only the last copy is kept).
+     *
+     * @param matrixRows  the rows of the input matrix
+     * @param cardinality the number of elements of each row
+     * @param signature   the signature of each row
+     * @param removed     the rows removed (updated)
+     * @param cols        the number of columns
+     * @return true if at least one row is removed
+     */
+    private boolean removeRows(Rows matrixRows, int[] cardinality, long[] signature, boolean[] removed, int cols) {
+        final int rows = matrixRows.size();
+        final boolean[] dominated = new boolean[rows];
+
+        // Equal rows: only the last copy is kept
+        final Object[] keys = new Object[rows];
+        final Map<Object, Integer> lastCopy = pool != null ? new ConcurrentHashMap<>() : new HashMap<>();
+
+        forEach(0, rows, i -> {
+            if (!removed[i]) {
+                keys[i] = matrixRows.key(i);
+                lastCopy.merge(keys[i], i, Math::max);
+            }
+        });
+        forEach(0, rows, i -> dominated[i] = !removed[i] && lastCopy.get(keys[i]) != i);
+
+        // Distinct rows sorted by cardinality: only a smaller row can be a subset of another one
+        final boolean[] skipped = new boolean[rows];
+        forEach(0, rows, i -> skipped[i] = removed[i] || dominated[i]);
+        final int[] sortedRows = sortByCardinality(cardinality, skipped, cols);
+        // Rows not removed (i.e. not containing another row) found until now, sorted by cardinality
+        final int[] minimalRows = new int[sortedRows.length];
+        int numberOfMinimalRows = 0;
+
+        for (int from = 0; from < sortedRows.length; ) {
+            // Distinct rows with the same cardinality cannot contain each other: compare them only with the smaller ones
+            final int levelCardinality = cardinality[sortedRows[from]];
+            final int smallerRows = numberOfMinimalRows;
+
+            int to = from + 1;
+            while (to < sortedRows.length && cardinality[sortedRows[to]] == levelCardinality)
+                to++;
+
+            // The rows of the same cardinality are independent of each other (a row not compared is kept)
+            forEach(from, to, k -> dominated[sortedRows[k]] = !isOverDeadline() && containsRow(sortedRows[k], minimalRows, smallerRows, matrixRows, signature));
+
+            if (outOfTime)
+                break;
+
+            for (int k = from; k < to; k++) {
+                if (!dominated[sortedRows[k]])
+                    minimalRows[numberOfMinimalRows++] = sortedRows[k];
             }
+
+            from = to;
         }
 
-        rowsToRemove.clear();
-        rowsToRemove.addAll(rowsToRemoveSet); // Update the list with the rows removed
+        boolean reduced = false;
+        for (int i = 0; i < rows; i++) {
+            if (dominated[i]) {
+                removed[i] = true;
+                reduced = true;
+            }
+        }
 
-        // Create the new input matrix with <= rows
-        boolean[][] newMatrix = new boolean[matrix.length - rowsToRemove.size()][matrix[0].length];
+        return reduced;
+    }
 
-        resizeMatrixWithoutRowsRemoved(matrix, newMatrix);
+    /**
+     * Method to pack a row of the matrix in an array of words (one bit for each column).
+     *
+     * @param row the row of the matrix
+     * @return the bits of the row
+     */
+    private long[] packRow(boolean[] row) {
+        final long[] bits = new long[(row.length + Long.SIZE - 1) / Long.SIZE];
+
+        for (int j = 0; j < row.length; j++) {
+            if (row[j])
+                bits[j >>> 6] |= 1L << j;
+        }
 
-        return newMatrix;
+        return bits;
     }
 
     /**
-     * Method to create the matrix with new dimension (i.e. fewer rows).
+     * Method to sort the rows not removed by cardinality (counting sort, stable).
      *
-     * @param matrix    the initial input matrix
-     * @param newMatrix the matrix with the new dimensions
+     * @param cardinality the number of elements of each row
+     * @param removed     the rows already removed
+     * @param cols        the number of columns (i.e. maximum cardinality)
+     * @return the indices of the rows not removed sorted by cardinality
      */
-    private void resizeMatrixWithoutRowsRemoved(boolean[][] matrix, boolean[][] newMatrix) {
-        for (int i = 0, rowCount = 0; i < matrix.length; i++) {
-            if (rowsToRemove.contains(i)) { // Skip the row to store
-                continue;
-            }
-            for (int j = 0; j < matrix[0].length; j++) {
-                newMatrix[rowCount][j] = matrix[i][j];
+    private int[] sortByCardinality(int[] cardinality, boolean[] removed, int cols) {
+        final int[] start = new int[cols + 2];
+        int count = 0;
+
+        for (int i = 0; i < cardinality.length; i++) {
+            if (!removed[i]) {
+                start[cardinality[i] + 1]++;
+                count++;
             }
-            ++rowCount;
         }
+
+        for (int c = 1; c < start.length; c++) {
+            start[c] += start[c - 1];
+        }
+
+        final int[] sortedRows = new int[count];
+        for (int i = 0; i < cardinality.length; i++) {
+            if (!removed[i])
+                sortedRows[start[cardinality[i]]++] = i;
+        }
+
+        return sortedRows;
     }
 
     /**
-     * Method to compare two rows and return if one contains the other (or viceversa, 1 or 2), they are equals (0)
-     * or there is not a subset relation.
+     * Method to check if a row contains one of the rows given.
      *
-     * @param row1 the fixed row to compare with row2
-     * @param row2 the row after row1
-     * @param cols the number of columns to compare
-     * @return 1 -> row2 < row1, 2 -> row1 < row2, -1 -> row1 <> row2, 0 -> row1 == row2
+     * @param row          the index of the row
+     * @param candidates   the indices of the rows that can be contained
+     * @param numberOfRows the number of rows to check inside candidates
+     * @param matrixRows   the rows of the input matrix
+     * @param signature    the signature of each row
+     * @return true if the row contains at least one of the rows given
      */
-    private int checkRow(boolean[] row1, boolean[] row2, int cols) {
-        int check = 0; // row1 == row2
-
-        for (int i = 0; i < cols; i++) {
-            if (row1[i] && !row2[i]) {
-                if (check == 2) {
-                    check = -1;
-                    break;
-                } else {
-                    check = 1;
-                    continue;
-                }
+    private boolean containsRow(int row, int[] candidates, int numberOfRows, Rows matrixRows, long[] signature) {
+        final long rowSignature = signature[row];
+
+        for (int k = 0; k < numberOfRows; k++) {
+            final int candidate = candidates[k];
+
+            if ((signature[candidate] & ~rowSignature) != 0) // Some bit of the candidate is not in the row
+                continue;
+
+            if (matrixRows.contains(row, candidate))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Method to remove the empty columns (i.e. not hit by any row not removed).
+     *
+     * @param matrixRows  the rows of the input matrix
+     * @param removedRows the rows removed
+     * @param removedCols the columns removed (updated)
+     * @return true if at least one column is removed
+     */
+    private boolean removeEmptyCols(Rows matrixRows, boolean[] removedRows, boolean[] removedCols) {
+        // Columns hit by at least one row
+        final long[] used = new long[(removedCols.length + Long.SIZE - 1) / Long.SIZE];
+
+        for (int i = 0; i < matrixRows.size(); i++) {
+            if (!removedRows[i])
+                matrixRows.addCols(i, used);
+        }
+
+        boolean reduced = false;
+        for (int j = 0; j < removedCols.length; j++) {
+            if (!removedCols[j] && (used[j >>> 6] & (1L << j)) == 0) {
+                if (debug)
+                    System.out.println("Column" + j + ": empty");
+
+                removedCols[j] = true;
+                reduced = true;
             }
+        }
 
-            if (!row1[i] && row2[i]) {
-                if (check == 1) {
-                    check = -1;
-                    break;
-                } else {
-                    check = 2;
-                }
+        return reduced;
+    }
+
+    /**
+     * Method to remove the columns of the essential elements (i.e. the only element of a row) and the rows they hit.
+     *
+     * @param matrixRows  the rows of the input matrix
+     * @param cardinality the number of elements of each row
+     * @param removedRows the rows removed (updated)
+     * @param removedCols the columns removed (updated)
+     * @param essential   the columns of the essential elements (updated)
+     * @return true if at least one essential element is found
+     */
+    private boolean removeEssentialCols(Rows matrixRows, int[] cardinality, boolean[] removedRows, boolean[] removedCols, boolean[] essential) {
+        // Columns of the essential elements found in this step
+        final long[] found = new long[(removedCols.length + Long.SIZE - 1) / Long.SIZE];
+        boolean reduced = false;
+
+        for (int i = 0; i < matrixRows.size(); i++) {
+            if (removedRows[i] || cardinality[i] != 1)
+                continue;
+
+            matrixRows.addCols(i, found);
+            reduced = true;
+        }
+
+        if (!reduced)
+            return false;
+
+        for (int j = 0; j < removedCols.length; j++) {
+            if ((found[j >>> 6] & (1L << j)) != 0) {
+                if (debug)
+                    System.out.println("Column" + j + ": essential");
+
+                essential[j] = true;
+                removedCols[j] = true;
             }
         }
 
-        return check;
+        // The rows hit by an essential element are hit by each MHS
+        forEach(0, matrixRows.size(), i -> {
+            if (!removedRows[i] && matrixRows.hits(i, found))
+                removedRows[i] = true;
+        });
+
+        return true;
+    }
+
+    /**
+     * Method to create the matrix with new dimension (i.e. fewer rows and columns).
+     *
+     * @param matrix      the initial input matrix
+     * @param newMatrix   the matrix with the new dimensions
+     * @param removedRows the rows removed
+     */
+    private void resizeMatrix(boolean[][] matrix, boolean[][] newMatrix, boolean[] removedRows) {
+        // Index of each row not removed inside the new matrix
+        final int[] newRows = new int[matrix.length];
+        for (int i = 0, rowCount = 0; i < matrix.length; i++) {
+            newRows[i] = removedRows[i] ? -1 : rowCount++;
+        }
+
+        forEach(0, matrix.length, i -> {
+            if (newRows[i] < 0) // Skip the row to store
+                return;
+
+            for (int j = 0; j < newMatrix[newRows[i]].length; j++) {
+                newMatrix[newRows[i]][j] = matrix[i][columnMapping.toOriginal(j)];
+            }
+        });
     }
 
     /**
@@ -167,7 +557,7 @@ public class MinimalHittingSetPreProcessor {
      */
     private void printBoolMatrix(boolean[][] boolMatrix) {
         if (debug) {
-            System.out.println("Size: " + boolMatrix.length + "x" + boolMatrix[0].length);
+            System.out.println("Size: " + boolMatrix.length + "x" + (boolMatrix.length > 0 ? boolMatrix[0].length : 0));
             for (boolean[] col : boolMatrix) {
                 for (int j = 0; j < boolMatrix[0].length; j++) {
                     System.out.print(col[j] ? 1 + " " : 0 + " "); // Print each row of the matrix
@@ -178,84 +568,269 @@ public class MinimalHittingSetPreProcessor {
     }
 
     /**
-     * Method to remove empty columns from a matrix.
+     * Method to apply an action to each index of a range: the range is split among the workers of the pool in parallel
+     * mode, otherwise the indices are processed in ascending order.
      *
-     * @param matrix a boolean matrix
-     * @return a boolean matrix without empty columns
+     * @param from   the first index (inclusive)
+     * @param to     the last index (exclusive)
+     * @param action the action to apply to each index
      */
-    private boolean[][] removeCols(boolean[][] matrix) {
-        boolean[][] transposeMatrix = transpose(matrix);
+    private void forEach(int from, int to, IntConsumer action) {
+        if (pool == null || to - from <= PARALLEL_LEAF_SIZE) {
+            for (int i = from; i < to; i++) {
+                action.accept(i);
+            }
+            return;
+        }
 
-        if (debug) {
-            System.out.println("Matrix:");
-            printBoolMatrix(matrix);
-            System.out.println("Matrix transpose:");
-            printBoolMatrix(transposeMatrix);
+        pool.invoke(new RangeTask(from, to, action));
+    }
+
+    /**
+     * This class represents the task to apply an action to a range of indices (parallel mode): the range is split
+     * until it is small enough.
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        private RangeTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
         }
 
-        int rows = transposeMatrix.length; // REMEMBER: matrix is transposed!
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(from, middle, action), new RangeTask(middle, to, action));
+                return;
+            }
 
-        for (int i = 0; i < rows; i++) { // rows = columns of original matrix
-            if (colIsEmpty(transposeMatrix[i], i))
-                colsToRemove.add(i);
+            for (int i = from; i < to; i++) {
+                action.accept(i);
+            }
         }
+    }
 
-        boolean[][] newInputMatrix = new boolean[matrix.length][matrix[0].length - colsToRemove.size()];
+    /**
+     * This class wraps the bits of a row in order to find the equal rows with a hash map.
+     */
+    private static class PackedRow {
+        private final long[] bits;
+        private final int hash;
+
+        private PackedRow(long[] bits) {
+            this.bits = bits;
+            this.hash = Arrays.hashCode(bits);
+        }
 
-        resizeMatrixWithoutColumnsRemoved(matrix, newInputMatrix);
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PackedRow && Arrays.equals(bits, ((PackedRow) o).bits);
+        }
 
-        return newInputMatrix;
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 
     /**
-     * Method to resize the matrix without columns empty.
-     *
-     * @param matrix         the initial input matrix
-     * @param newInputMatrix the matrix with dimensions updated
+     * This interface represents the rows of the input matrix seen by the reductions.
      */
-    private void resizeMatrixWithoutColumnsRemoved(boolean[][] matrix, boolean[][] newInputMatrix) {
-        for (int i = 0; i < matrix.length; i++) {
-            for (int j = 0, colCount = 0; j < matrix[0].length; j++) {
-                if (!colsToRemove.contains(j)) {
-                    newInputMatrix[i][colCount++] = matrix[i][j];
-                }
-            }
-        }
+    private interface Rows {
+
+        int size();
+
+        /**
+         * @return the number of elements of the row
+         */
+        int cardinality(int row);
+
+        /**
+         * @return the OR of the bits (column % 64) of the elements of the row
+         */
+        long signature(int row);
+
+        /**
+         * @return an object equal to the key of another row if and only if the rows are equal
+         */
+        Object key(int row);
+
+        /**
+         * @return true if the candidate row is a subset of the row
+         */
+        boolean contains(int row, int candidate);
+
+        /**
+         * Set the bits of the columns of the row inside a bitset of the columns.
+         */
+        void addCols(int row, long[] cols);
+
+        /**
+         * @return true if the row hits at least one column of the bitset
+         */
+        boolean hits(int row, long[] cols);
+
+        String toString(int row);
     }
 
     /**
-     * Method to compute the transpose of a matrix.
-     *
-     * @param matrix a boolean matrix
-     * @return the boolean matrix transposed
+     * Rows of a dense matrix packed in words of bits: the subset test is a sequence of AND NOT between words.
      */
-    private boolean[][] transpose(boolean[][] matrix) {
-        boolean[][] transposeMatrix = new boolean[matrix[0].length][matrix.length];
+    private static class DenseRows implements Rows {
+        private final long[][] bits;
+
+        private DenseRows(long[][] bits) {
+            this.bits = bits;
+        }
+
+        @Override
+        public int size() {
+            return bits.length;
+        }
+
+        @Override
+        public int cardinality(int row) {
+            int cardinality = 0;
+            for (long word : bits[row]) {
+                cardinality += Long.bitCount(word);
+            }
+            return cardinality;
+        }
 
-        for (int i = 0; i < matrix.length; i++) {
-            for (int j = 0; j < matrix[0].length; j++) {
-                transposeMatrix[j][i] = matrix[i][j];
+        @Override
+        public long signature(int row) {
+            long signature = 0;
+            for (long word : bits[row]) {
+                signature |= word;
             }
+            return signature;
+        }
+
+        @Override
+        public Object key(int row) {
+            return new PackedRow(bits[row]);
+        }
+
+        @Override
+        public boolean contains(int row, int candidate) {
+            final long[] rowBits = bits[row];
+            final long[] candidateBits = bits[candidate];
+
+            for (int w = 0; w < rowBits.length; w++) {
+                if ((candidateBits[w] & ~rowBits[w]) != 0)
+                    return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public void addCols(int row, long[] cols) {
+            for (int w = 0; w < cols.length; w++) {
+                cols[w] |= bits[row][w];
+            }
+        }
+
+        @Override
+        public boolean hits(int row, long[] cols) {
+            for (int w = 0; w < cols.length; w++) {
+                if ((bits[row][w] & cols[w]) != 0)
+                    return true;
+            }
+
+            return false;
         }
 
-        return transposeMatrix;
+        @Override
+        public String toString(int row) {
+            final StringBuilder sb = new StringBuilder("[");
+            for (int j = 0; j < bits[row].length * Long.SIZE; j++) {
+                if ((bits[row][j >>> 6] & (1L << j)) != 0)
+                    sb.append(sb.length() > 1 ? ", " : "").append(j);
+            }
+            return sb.append("]").toString();
+        }
     }
 
     /**
-     * Method to check if the column (col) selected is empty.
-     *
-     * @param col    a boolean array represented the column of a matrix
-     * @param numCol the index of the column
-     * @return true if the column is empty (i.e. only false values inside the array)
+     * Rows of a {@link SparseMatrix} as sorted lists of columns: the subset test is a merge of the two lists.
      */
-    private boolean colIsEmpty(boolean[] col, int numCol) {
-        int count = 0;
-        for (boolean b : col) if (b) return false;
+    private static class SparseRows implements Rows {
+        private final int[] rowStart;
+        private final int[] rowCols;
 
-        if (debug)
-            System.out.println("Column" + numCol + ": " + Booleans.asList(col) + "\nEmpty: " + (count == 0));
+        private SparseRows(SparseMatrix matrix) {
+            this.rowStart = matrix.getRowStart();
+            this.rowCols = matrix.getRowCols();
+        }
 
-        return true;
-    }
+        @Override
+        public int size() {
+            return rowStart.length - 1;
+        }
+
+        @Override
+        public int cardinality(int row) {
+            return rowStart[row + 1] - rowStart[row];
+        }
+
+        @Override
+        public long signature(int row) {
+            long signature = 0;
+            for (int p = rowStart[row]; p < rowStart[row + 1]; p++) {
+                signature |= 1L << rowCols[p];
+            }
+            return signature;
+        }
+
+        @Override
+        public Object key(int row) {
+            // The equality and the hash of a buffer depend only on its remaining elements (i.e. the columns of the row)
+            return IntBuffer.wrap(rowCols, rowStart[row], rowStart[row + 1] - rowStart[row]);
+        }
 
+        @Override
+        public boolean contains(int row, int candidate) {
+            int p = rowStart[row];
+            final int end = rowStart[row + 1];
+
+            for (int q = rowStart[candidate]; q < rowStart[candidate + 1]; q++) {
+                while (p < end && rowCols[p] < rowCols[q])
+                    p++;
+                if (p == end || rowCols[p] != rowCols[q])
+                    return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public void addCols(int row, long[] cols) {
+            for (int p = rowStart[row]; p < rowStart[row + 1]; p++) {
+                cols[rowCols[p] >>> 6] |= 1L << rowCols[p];
+            }
+        }
+
+        @Override
+        public boolean hits(int row, long[] cols) {
+            for (int p = rowStart[row]; p < rowStart[row + 1]; p++) {
+                if ((cols[rowCols[p] >>> 6] & (1L << rowCols[p])) != 0)
+                    return true;
+            }
+
+            return false;
+        }
+
+        @Override
+        public String toString(int row) {
+            return Arrays.toString(Arrays.copyOfRange(rowCols, rowStart[row], rowStart[row + 1]));
+        }
+    }
 }
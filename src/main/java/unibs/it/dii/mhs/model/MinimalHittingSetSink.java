@@ -0,0 +1,19 @@
+package unibs.it.dii.mhs.model;
+
+import java.io.IOException;
+
+/**
+ * This interface represents the consumer of the MHS found by MBase: each MHS is handed over as soon as it is found,
+ * so the solver does not keep the solutions in memory.
+ */
+public interface MinimalHittingSetSink {
+
+    /**
+     * Method called for each MHS found.
+     *
+     * @param elements the sorted indices of the elements (columns) of the MHS
+     * @param size     the number of elements of the MHS (i.e. cardinality)
+     * @throws IOException
+     */
+    void accept(int[] elements, int size) throws IOException;
+}
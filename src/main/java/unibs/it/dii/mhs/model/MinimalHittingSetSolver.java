@@ -1,15 +1,16 @@
 package unibs.it.dii.mhs.model;
 
-import com.google.common.primitives.Booleans;
-import unibs.it.dii.mhs.MinimalHittingSetFacade;
-import unibs.it.dii.mhs.model.Matrix;
-import unibs.it.dii.mhs.model.SubMatrix;
-import unibs.it.dii.utility.OutputFileWriter;
-import unibs.it.dii.utility.OutputMatrixBuilder;
-
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
 
 import static java.lang.Integer.min;
+import static unibs.it.dii.mhs.MinimalHittingSetFacade.bytesToKiloBytes;
 import static unibs.it.dii.mhs.MinimalHittingSetFacade.bytesToMegaBytes;
 
 /**
@@ -20,8 +21,10 @@ public class MinimalHittingSetSolver {
     final static private String DOUBLE_LINE = "=========================================================================";
     final static private String LINE = "-------------------------------------------------------------------------";
 
-    final static private String MSG_EXCEPTION_GET_FIRST_ELEMENT = "ATTENTION! Something went wrong with getFirstElement (i.e. get the first lexicographical element available)";
-    final static private String MSG_EXCEPTION_CHECK_MODULE = "ATTENTION! Something went wrong with checkModule";
+    // Number of subsets taken from the queue and expanded concurrently (parallel mode)
+    final static private int PARALLEL_BATCH_SIZE = 1024;
+    // Number of subsets expanded sequentially by a single task (parallel mode)
+    final static private int PARALLEL_LEAF_SIZE = 8;
 
     private boolean outOfTime;
     private boolean outOfMemory;
@@ -29,18 +32,79 @@ public class MinimalHittingSetSolver {
     private int maxCardinality;
     private long executionTime;
     private long consumedMemory;
-    private int numberMHSFound;
+    private long numberMHSFound;
+    // Cardinality of the MHS found
+    private int minCardinalityMHS;
+    private int maxCardinalityMHS;
+    private long frontierPeakSize;
+    private long frontierPeakMemory;
+    private long frontierSpilledSize;
+    // Bounds of the search which stopped the execution
+    private boolean cardinalityBoundReached;
+    private boolean limitReached;
     private boolean debug;
+    private boolean bitPacked;
+    private int threads;
+    private long spillBudget;
+    private int maxCardinalityBound;
+    private long limit;
+    private boolean depthFirst;
+    private boolean decompose;
+    private boolean compress;
+    // Classes of identical columns of the last matrix solved (null if not compressed)
+    private ColumnClasses columnClasses;
+    // Number of columns of the matrix solved by MBase (one per class of identical columns if compressed)
+    private int columnsSolved;
+    // Buffers of the expansion of the MHS over the classes of identical columns
+    private int[] expandedElements;
+    private int[] expansionIndex;
+    // Start time and time limit of the current execution (to stop the expansion)
+    private long startTimeExecution;
+    private long timeoutExecution;
+    // Number of connected components of the last matrix solved
+    private int numberOfComponents;
+    // Print the information of the execution (false for the solver of a single component)
+    private boolean printInformation;
+    // Number of essential elements removed by the pre-processing, added to each MHS found
+    private int essentialElements;
 
-    public MinimalHittingSetSolver(boolean debug) {
+    /**
+     * @param debug               print the information of each step of MBase
+     * @param bitPacked           execute MBase on the bit-packed representation of the input matrix
+     * @param threads             the number of threads used to expand the queue (1 = sequential execution)
+     * @param spillBudget         the maximum number of bytes of the queue in memory before writing it on disk (0 = no limit)
+     * @param maxCardinalityBound the maximum cardinality of the subsets evaluated (0 = no limit)
+     * @param limit               the maximum number of MHS to find (0 = no limit)
+     * @param depthFirst          visit the subsets depth-first with a stack instead of the queue (sequential execution)
+     * @param decompose           solve each connected component of the matrix separately and combine their MHS
+     * @param compress            solve the matrix with one column per class of identical columns and expand each MHS
+     */
+    public MinimalHittingSetSolver(boolean debug, boolean bitPacked, int threads, long spillBudget, int maxCardinalityBound, long limit, boolean depthFirst, boolean decompose, boolean compress) {
         this.outOfTime = false;
         this.outOfMemory = false;
         this.minCardinality = 0;
         this.maxCardinality = 0;
         this.executionTime = 0;
         this.numberMHSFound = 0;
+        this.minCardinalityMHS = 0;
+        this.maxCardinalityMHS = 0;
         this.consumedMemory = 0;
+        this.frontierPeakSize = 0;
+        this.frontierPeakMemory = 0;
+        this.frontierSpilledSize = 0;
+        this.cardinalityBoundReached = false;
+        this.limitReached = false;
         this.debug = debug;
+        this.bitPacked = bitPacked;
+        this.threads = threads;
+        this.spillBudget = spillBudget;
+        this.maxCardinalityBound = maxCardinalityBound;
+        this.limit = limit;
+        this.depthFirst = depthFirst;
+        this.decompose = decompose;
+        this.compress = compress;
+        this.numberOfComponents = 1;
+        this.printInformation = true;
     }
 
     public long getConsumedMemory() {
@@ -51,10 +115,28 @@ public class MinimalHittingSetSolver {
         return executionTime;
     }
 
-    public int getNumberMHSFound() {
+    public long getNumberMHSFound() {
         return numberMHSFound;
     }
 
+    public long getFrontierPeakSize() {
+        return frontierPeakSize;
+    }
+
+    /**
+     * @return the maximum number of bytes allocated by the queue of MBase
+     */
+    public long getFrontierPeakMemory() {
+        return frontierPeakMemory;
+    }
+
+    /**
+     * @return the number of subsets of the queue written on disk
+     */
+    public long getFrontierSpilledSize() {
+        return frontierSpilledSize;
+    }
+
     public long getMinCardinality() {
         return minCardinality;
     }
@@ -72,396 +154,746 @@ public class MinimalHittingSetSolver {
     }
 
     /**
-     * Method to compute the solution of MHS problem in matrix form.
+     * @return the number of connected components of the last matrix solved (1 if not decomposed)
+     */
+    public int getNumberOfComponents() {
+        return numberOfComponents;
+    }
+
+    /**
+     * @return the number of columns of the last matrix solved by MBase (one per class of identical columns if compressed)
+     */
+    public int getColumnsSolved() {
+        return columnsSolved;
+    }
+
+    /**
+     * @return true if some MHS aspirants were discarded because of the maximum cardinality bound
+     */
+    public boolean isCardinalityBoundReached() {
+        return cardinalityBoundReached;
+    }
+
+    /**
+     * @return true if the execution was stopped because the maximum number of MHS was found
+     */
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * Method to compute the solution of MHS problem: each MHS found is passed to the sink.
+     *
+     * @param matrix  the input matrix
+     * @param timeout the time limit to execute the MBase procedure
+     * @param sink    the consumer of the MHS found
+     * @throws Exception
+     */
+    public void execute(Matrix matrix, long timeout, MinimalHittingSetSink sink) throws Exception {
+        execute(matrix, 0, timeout, sink);
+    }
+
+    /**
+     * Method to compute the solution of MHS problem on a matrix pre-processed: each MHS found is passed to the sink,
+     * while the essential elements removed by the pre-processing are only counted in the cardinality of the MHS.
      *
-     * @param matrix           the input matrix
-     * @param timeout          the time limit to execute the MBase procedure
-     * @param outputFileWriter the object to write on output file
-     * @return a matrix of the all MHS found
+     * @param matrix            the input matrix (pre-processed)
+     * @param essentialElements the number of essential elements removed from the matrix
+     * @param timeout           the time limit to execute the MBase procedure
+     * @param sink              the consumer of the MHS found
      * @throws Exception
      */
-    public Matrix execute(Matrix matrix, long timeout, OutputFileWriter outputFileWriter) throws Exception {
+    public void execute(Matrix matrix, int essentialElements, long timeout, MinimalHittingSetSink sink) throws Exception {
         // Reset the variables for each method call
         resetSolverVariables();
-
-        // Create the output matrix object
-        final Matrix mhsMatrix = new Matrix();
-        // Object to create the matrix (boolean[][]) from an ArrayList
-        final OutputMatrixBuilder outputMatrixBuilder = new OutputMatrixBuilder();
+        this.essentialElements = essentialElements;
 
         boolean[][] inputBoolMatrix = matrix.getBoolMatrix();
-        // Matrix error to handle in MHSFacade otherwise it will be set to the output matrix
-        boolean[][] mhsBoolMatrix = new boolean[1][1];
+        SparseMatrix sparseMatrix = matrix.getSparseMatrix();
 
         Runtime runtime = Runtime.getRuntime();
 
+        // Connected components of the matrix (decomposition only)
+        ConnectedComponents components;
+
+        long startTimeMBase = System.currentTimeMillis();
+        startTimeExecution = startTimeMBase;
+        timeoutExecution = timeout;
+
         try {
 
-            long startTimeMBase = System.currentTimeMillis();
+            // The decomposition and the compression work on the dense matrix
+            if (sparseMatrix != null && (decompose || compress)) {
+                inputBoolMatrix = sparseMatrix.toBoolMatrix();
+                sparseMatrix = null;
+            }
 
-            // List of all MHS found
-            ArrayList<boolean[]> mhsList = solve(inputBoolMatrix, timeout);
+            if (compress && inputBoolMatrix.length > 0)
+                inputBoolMatrix = compressColumns(inputBoolMatrix);
+
+            final int rows = sparseMatrix != null ? sparseMatrix.getRows() : inputBoolMatrix.length;
+            columnsSolved = sparseMatrix != null ? sparseMatrix.getCols() : (rows > 0 ? inputBoolMatrix[0].length : 0);
+
+            if (rows == 0) { // No rows: the empty subset is the only MHS
+                if (maxCardinalityBound > 0 && essentialElements > maxCardinalityBound)
+                    cardinalityBoundReached = true;
+                else
+                    addMinimalHittingSet(sink, new int[0], 0);
+            } else if (isOverCardinalityBound(0)) { // Each subset but the empty one exceeds the bound
+                cardinalityBoundReached = true;
+            } else if (decompose && (components = new ConnectedComponents(inputBoolMatrix)).getNumberOfComponents() > 1) {
+                numberOfComponents = components.getNumberOfComponents();
+                solveComponents(inputBoolMatrix, components, timeout, sink);
+            } else if (depthFirst) {
+                solveDepthFirst(columnsSolved, getCandidateEvaluatorFactory(inputBoolMatrix, sparseMatrix), timeout, sink);
+            } else {
+                solve(columnsSolved, getCandidateEvaluatorFactory(inputBoolMatrix, sparseMatrix), timeout, sink);
+            }
 
-            executionTime = System.currentTimeMillis() - startTimeMBase;
+        } catch (OutOfMemoryError me) {
+            System.err.println("Problems with the execution of MBase > Cause: OUT OF MEMORY");
+            consumedMemory = bytesToMegaBytes(runtime.totalMemory() - runtime.freeMemory());
+            outOfMemory = true;
+        }
 
-            // Number of MHS found
-            numberMHSFound = mhsList.size();
+        executionTime = System.currentTimeMillis() - startTimeMBase;
 
-            // Compute the min and max cardinality found
-            if (!mhsList.isEmpty()) {
-                minCardinality = getCardinality(mhsList.get(0));
-                maxCardinality = getCardinality(mhsList.get(mhsList.size() - 1));
-            }
+        // Compute the min and max cardinality found
+        if (numberMHSFound > 0) {
+            minCardinality = minCardinalityMHS;
+            maxCardinality = maxCardinalityMHS;
+        } else if (minCardinality > 0) {
+            minCardinality += essentialElements;
+            maxCardinality += essentialElements;
+        }
 
+        if (printInformation)
             printMBaseExecutionInformation(runtime);
+    }
 
-            // MBase execution OUT OF MEMORY
-            if (outOfMemory) {
-                // Write the cause of interruption
-                outputFileWriter.writeOutputFile(new StringBuilder("Execution interrupted > Cause: OUT OF MEMORY\n"));
-            }
+    /**
+     * Method to group the identical columns of the matrix: if there are any, the MHS are searched on the matrix with
+     * one column per class and each MHS found is expanded over the classes of its elements.
+     *
+     * @param boolMatrix the input boolean matrix
+     * @return the matrix to solve
+     */
+    private boolean[][] compressColumns(boolean[][] boolMatrix) {
+        final ColumnClasses classes = new ColumnClasses(boolMatrix);
+
+        if (!classes.hasIdenticalColumns())
+            return boolMatrix;
+
+        columnClasses = classes;
+        expandedElements = new int[boolMatrix[0].length];
+        expansionIndex = new int[classes.getNumberOfClasses()];
+
+        return classes.getMatrix(boolMatrix);
+    }
+
+    /**
+     * Method to solve each connected component of the matrix with its own solver (concurrently if more threads are
+     * available), then to pass to the sink each combination of one MHS of each component: the combinations are built
+     * one at a time, so only the MHS of the components are stored in memory.
+     *
+     * @param boolMatrix the input boolean matrix
+     * @param components the connected components of the matrix
+     * @param timeout    the maximum time limit
+     * @param sink       the consumer of the MHS found
+     * @throws Exception
+     */
+    private void solveComponents(boolean[][] boolMatrix, ConnectedComponents components, long timeout, MinimalHittingSetSink sink) throws Exception {
+        Runtime runtime = Runtime.getRuntime();
+
+        final int n = components.getNumberOfComponents();
+        // The bound on the whole MHS also bounds the MHS of each component: each one of the other n-1 components adds
+        // at least one element to the MHS
+        final int componentBound = maxCardinalityBound > 0 ? maxCardinalityBound - essentialElements - (n - 1) : 0;
+
+        if (maxCardinalityBound > 0 && componentBound < 1) {
+            cardinalityBoundReached = true; // Each combination exceeds the bound
+            return;
+        }
+
+        // Solve the components concurrently (each one sequentially) or one at a time (each one with all the threads)
+        final boolean concurrent = threads > 1;
+        final ForkJoinPool pool = concurrent ? new ForkJoinPool(threads) : null;
+        final MinimalHittingSetSolver[] solvers = new MinimalHittingSetSolver[n];
+        final MinimalHittingSetCollector[] collectors = new MinimalHittingSetCollector[n];
+        final List<Callable<Void>> tasks = new ArrayList<>();
+
+        long startTime = System.currentTimeMillis();
+
+        for (int k = 0; k < n; k++) {
+            final boolean[][] componentMatrix = components.getMatrix(boolMatrix, k);
+            // The limit bounds the MHS of each component only if the cardinality is not bounded
+            final MinimalHittingSetSolver solver = new MinimalHittingSetSolver(debug, bitPacked, concurrent ? 1 : threads, spillBudget,
+                    componentBound, maxCardinalityBound > 0 ? 0 : limit, depthFirst, false, false);
+            final MinimalHittingSetCollector collector = new MinimalHittingSetCollector(components.getCols(k));
+
+            solver.printInformation = false;
+            solvers[k] = solver;
+            collectors[k] = collector;
+            tasks.add(() -> {
+                solver.execute(new Matrix(componentMatrix), timeout - (System.currentTimeMillis() - startTime), collector);
+                return null;
+            });
+        }
 
-            // MBase execution OUT OF TIME
-            if (outOfTime) {
-                // Write the cause of interruption
-                outputFileWriter.writeOutputFile(new StringBuilder("Execution interrupted > Cause: OUT OF TIME\n"));
+        try {
+            if (pool != null) {
+                for (Future<Void> future : pool.invokeAll(tasks)) {
+                    future.get();
+                }
+            } else {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                }
             }
+        } finally {
+            if (pool != null)
+                pool.shutdownNow();
+        }
 
-            try {
+        int sumMaxCardinality = 0;
+        for (MinimalHittingSetSolver solver : solvers) {
+            outOfTime |= solver.isOutOfTime();
+            outOfMemory |= solver.isOutOfMemory();
+            cardinalityBoundReached |= solver.isCardinalityBoundReached();
+            frontierPeakSize = concurrent ? frontierPeakSize + solver.getFrontierPeakSize() : Math.max(frontierPeakSize, solver.getFrontierPeakSize());
+            frontierPeakMemory = concurrent ? frontierPeakMemory + solver.getFrontierPeakMemory() : Math.max(frontierPeakMemory, solver.getFrontierPeakMemory());
+            frontierSpilledSize += solver.getFrontierSpilledSize();
+
+            if (solver.getMinCardinality() > 0 && (minCardinality == 0 || solver.getMinCardinality() < minCardinality))
+                minCardinality = (int) solver.getMinCardinality();
+            sumMaxCardinality += solver.getMaxCardinality();
+        }
+        maxCardinality = sumMaxCardinality;
 
-                if (!mhsList.isEmpty())
-                    mhsBoolMatrix = outputMatrixBuilder.getMHSBoolOutputMatrix(mhsList, inputBoolMatrix[0].length);
+        if (outOfMemory) {
+            handleOutOfMemory(runtime);
+            return;
+        }
+
+        // Combine the MHS of the components
+        final int[] mhs = new int[boolMatrix[0].length];
+        final int[] index = new int[n];
+        boolean empty = false;
+
+        for (MinimalHittingSetCollector collector : collectors) {
+            empty |= collector.size() == 0; // A component without MHS: the matrix has no MHS
+        }
 
-            } catch (OutOfMemoryError me) {
-                System.err.println("Impossible to get output matrix > Cause: OUT OF MEMORY");
-                outputFileWriter.writeOutputFile(new StringBuilder("Impossible to get output matrix > Cause: OUT OF MEMORY\n"));
+        while (!empty && !limitReached && (System.currentTimeMillis() - startTime) <= timeout) {
+            int size = 0;
+            for (int k = 0; k < n; k++) {
+                size += collectors[k].get(index[k], mhs, size);
             }
 
-            mhsMatrix.setName(matrix.getName());
-            mhsMatrix.setBoolMatrix(mhsBoolMatrix);
+            if (maxCardinalityBound > 0 && essentialElements + size > maxCardinalityBound) {
+                cardinalityBoundReached = true; // The combination exceeds the bound
+            } else {
+                Arrays.sort(mhs, 0, size);
+                addMinimalHittingSet(sink, mhs, size);
+            }
 
-        } catch (OutOfMemoryError me) {
-            System.err.println("Problems with the execution of MBase > Cause: OUT OF MEMORY");
-            outputFileWriter.writeOutputFile(new StringBuilder("Problems with the execution of MBase > Cause: OUT OF MEMORY\n"));
-            mhsMatrix.setBoolMatrix(new boolean[1][1]); // Error matrix
+            // Next combination (the last component changes first)
+            int k = n - 1;
+            while (k >= 0 && ++index[k] == collectors[k].size()) {
+                index[k] = 0;
+                k--;
+            }
+            empty = k < 0;
         }
 
-        return mhsMatrix;
+        if (!outOfTime)
+            updateExecutionStatus(runtime, startTime, timeout);
+        else
+            consumedMemory = bytesToMegaBytes(runtime.totalMemory() - runtime.freeMemory());
     }
 
     /**
      * This method implement the MBase algorithm.
      *
-     * @param boolMatrix the input boolean matrix
-     * @param timeout    the maximum time limit
-     * @return the list of MHS found
+     * @param cols             the number of columns of the input matrix
+     * @param evaluatorFactory the factory of the engines on the input matrix
+     * @param timeout          the maximum time limit
+     * @param sink             the consumer of the MHS found
      */
-    private ArrayList<boolean[]> solve(boolean[][] boolMatrix, long timeout) throws Exception {
+    private void solve(int cols, Supplier<CandidateEvaluator> evaluatorFactory, long timeout, MinimalHittingSetSink sink) throws Exception {
         Runtime runtime = Runtime.getRuntime();
 
-//        final int rows = boolMatrix.length; // N = number of rows
-        final int cols = boolMatrix[0].length; // number of columns = X <= M
-
-        // Create the list of MHS
-        final ArrayList<boolean[]> mhsList = new ArrayList<>();
         // Create the queue to store the subsets of lexicographical elements
-        final Queue<boolean[]> queue = new LinkedList<>();
-
-        // Add empty vector [0 0 ... 0]
-        queue.add(new boolean[cols]);
+        final FrontierQueue queue = spillBudget > 0
+                ? new SpillingFrontierQueue(spillBudget, Paths.get(System.getProperty("java.io.tmpdir")))
+                : new FrontierQueue();
+        // Create the engine to compute and scan the representative vectors
+        final CandidateEvaluator evaluator = evaluatorFactory.get();
+        // Create the pool of workers to expand the queue concurrently (parallel mode)
+        final ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        // Engine of each worker, reused for all the subsets it expands (parallel mode)
+        final ThreadLocal<CandidateEvaluator> workerEvaluators = ThreadLocal.withInitial(evaluatorFactory);
+
+        // Indices of the elements of the subset taken from the queue
+        final int[] e = new int[cols];
+        // Indices of the elements of the MHS found
+        final int[] mhs = new int[cols];
+
+        // Add empty subset
+        queue.add(e, 0);
 
         long startTime = System.currentTimeMillis();
 
-        while (!queue.isEmpty() && (System.currentTimeMillis() - startTime) <= timeout) {
-            // Get the first element of the queue (Q)
-            boolean[] e = queue.poll();
+        try {
+            while (!queue.isEmpty() && !limitReached && (System.currentTimeMillis() - startTime) <= timeout) {
+                if (pool != null) {
+                    try {
+                        expandQueueBatch(pool, queue, sink, cols, workerEvaluators, startTime, timeout);
+                    } catch (OutOfMemoryError me) {
+                        handleOutOfMemory(runtime, queue);
+
+                        // Stop with the MHS computed until memory saturation
+                        return;
+                    }
+                    continue;
+                }
 
-            if (debug) {
-                System.out.println(LINE);
-                System.out.println("Successor: " + getSucc(getLast(e), cols));
-            }
+                // Get the first element of the queue (Q)
+                int size = queue.poll(e);
+
+                if (debug) {
+                    System.out.println(LINE);
+                    System.out.println("Successor: " + getSucc(getLast(e, size), cols));
+                }
+
+                // Compute the representative vector of e once for all its successors
+                evaluator.setParent(e, size);
 
-            for (int i = getSucc(getLast(e), cols); i < cols && (System.currentTimeMillis() - startTime) <= timeout; i++) {
-                try {
-                    boolean[] newE = Arrays.copyOf(e, e.length);
-                    newE[i] = true;
+                for (int i = getSucc(getLast(e, size), cols); i < cols && !limitReached && (System.currentTimeMillis() - startTime) <= timeout; i++) {
+                    try {
+                        int currentCardinality = size + 1;
 
-                    int currentCardinality = getCardinality(newE);
+                        if (minCardinality == 0)
+                            minCardinality = currentCardinality;
 
-                    if (minCardinality == 0)
-                        minCardinality = currentCardinality;
+                        if (maxCardinality < currentCardinality)
+                            maxCardinality = currentCardinality;
 
-                    if (maxCardinality < currentCardinality)
-                        maxCardinality = currentCardinality;
+                        if (debug)
+                            System.out.println("Element: " + Arrays.toString(Arrays.copyOf(e, size)) + " + " + i);
 
-                    if (debug)
-                        System.out.println("Element: " + Arrays.toString(newE));
+                        // Derive the representative vector of e + {i} from the one of e and the column i
+                        int result = evaluator.evaluateChild(i);
 
-                    // Create the submatrix object
-                    SubMatrix subMatrix = getSubMatrix(newE, boolMatrix);
+                        if (debug)
+                            System.out.println("Result: " + (result == CandidateEvaluator.MHS ? "MHS" : (result == CandidateEvaluator.OK ? "OK" : "KO")));
 
-                    if (debug)
-                        System.out.println(subMatrix.toString());
+                        if (result == CandidateEvaluator.OK && i < cols - 1) { // OK && NOT(last lexicographical element)
+                            if (isOverCardinalityBound(size + 1))
+                                cardinalityBoundReached = true; // Its successors would exceed the bound
+                            else
+                                queue.addSuccessor(e, size, i); // Add the element to the queue (MHS aspirant)
+                        }
 
-                    // Compute the representative vector
-                    final int[] rv = getRepresentativeVector(subMatrix);
+                        if (result == CandidateEvaluator.MHS) { // MHS
+                            System.arraycopy(e, 0, mhs, 0, size);
+                            mhs[size] = i;
+                            addMinimalHittingSet(sink, mhs, size + 1);
+                        }
 
-                    // Scan the representative vector (subset of M)
-                    int result = checkModule(rv, subMatrix.getElements());
+                        if (debug)
+                            System.out.println(DOUBLE_LINE);
+                    } catch (OutOfMemoryError me) {
+                        handleOutOfMemory(runtime, queue);
 
-                    if (debug) {
-                        System.out.println("RV" + i + ": " + Arrays.toString(rv));
-                        System.out.println("Result: " + (result == 2 ? "MHS" : (result == 1 ? "OK" : "KO")));
+                        // Stop with the MHS computed until memory saturation
+                        return;
                     }
+                }
 
-                    if (result == 1 && i < cols - 1) // OK && NOT(last lexicographical element)
-                        queue.add(newE); // Add the element to the queue (MHS aspirant)
+            }
+        } finally {
+            if (pool != null)
+                pool.shutdownNow();
 
-                    if (result == 2) // MHS
-                        mhsList.add(newE); // Add the element to MHS list
+            frontierPeakSize = queue.getPeakSize();
+            frontierPeakMemory = queue.getPeakMemory();
+            if (queue instanceof SpillingFrontierQueue)
+                frontierSpilledSize = ((SpillingFrontierQueue) queue).getSpilledSize();
 
-                    if (debug)
-                        System.out.println(DOUBLE_LINE);
-                } catch (OutOfMemoryError me) {
-                    System.err.println("Execution interrupted > Cause: OUT OF MEMORY");
-                    consumedMemory = bytesToMegaBytes(runtime.totalMemory() - runtime.freeMemory());
-                    outOfMemory = true;
-                    queue.clear(); // More free memory space
+            queue.clear(); // More free memory space
+            if (queue instanceof SpillingFrontierQueue)
+                ((SpillingFrontierQueue) queue).close(); // Delete the temporary files
+        }
+
+        updateExecutionStatus(runtime, startTime, timeout);
+    }
+
+    /**
+     * This method implement the MBase algorithm visiting the same tree of lexicographical subsets depth-first: the
+     * queue is replaced by a stack of at most cols frames, each one with the successors OK of a subset still to visit.
+     * The MHS found are the same of the breadth-first visit but in a different order.
+     *
+     * @param cols             the number of columns of the input matrix
+     * @param evaluatorFactory the factory of the engines on the input matrix
+     * @param timeout          the maximum time limit
+     * @param sink             the consumer of the MHS found
+     */
+    private void solveDepthFirst(int cols, Supplier<CandidateEvaluator> evaluatorFactory, long timeout, MinimalHittingSetSink sink) throws Exception {
+        Runtime runtime = Runtime.getRuntime();
 
-                    // Return the MHS computed until memory saturation
-                    return mhsList;
+        // Create the engine to compute and scan the representative vectors
+        final CandidateEvaluator evaluator = evaluatorFactory.get();
+
+        // Indices of the elements of the current subset (i.e. the path from the empty subset)
+        final int[] e = new int[cols];
+        // Successors OK still to visit: the ones of the frame at depth d are stored from frameStart[d] to frameEnd[d]
+        int[] stack = new int[cols];
+        final int[] frameStart = new int[cols + 1];
+        final int[] frameEnd = new int[cols + 1];
+
+        int depth = 0;
+        long peakSize = 0;
+
+        long startTime = System.currentTimeMillis();
+
+        try {
+            // Visit the empty subset
+            frameStart[0] = 0;
+            frameEnd[0] = 0;
+            stack = expandDepthFirst(evaluator, sink, e, 0, cols, stack, frameEnd, startTime, timeout);
+
+            while (depth >= 0 && !limitReached && (System.currentTimeMillis() - startTime) <= timeout) {
+                if (frameStart[depth] == frameEnd[depth]) { // No more successors: back to the parent
+                    depth--;
+                    continue;
                 }
-            }
 
-        }
+                peakSize = Math.max(peakSize, frameEnd[depth]);
 
-        long endTime = System.currentTimeMillis();
+                // Go down to the next successor of the current subset
+                e[depth] = stack[frameStart[depth]++];
+                depth++;
+                frameStart[depth] = frameEnd[depth - 1];
+                frameEnd[depth] = frameStart[depth];
 
-        if ((endTime - startTime) > timeout) {
-            System.err.println("Execution interrupted > Cause: OUT OF TIME");
-            outOfTime = true;
-            consumedMemory = bytesToMegaBytes(runtime.totalMemory() - runtime.freeMemory());
-            queue.clear(); // More free memory space
+                stack = expandDepthFirst(evaluator, sink, e, depth, cols, stack, frameEnd, startTime, timeout);
+            }
+        } catch (OutOfMemoryError me) {
+            handleOutOfMemory(runtime);
 
-            return mhsList;
+            // Stop with the MHS computed until memory saturation
+            return;
+        } finally {
+            frontierPeakSize = peakSize;
+            frontierPeakMemory = (long) stack.length * Integer.BYTES;
         }
 
-        consumedMemory = bytesToMegaBytes(runtime.totalMemory() - runtime.freeMemory());
-        queue.clear();
-
-        // Return the list of MHS computed anyway
-        return mhsList;
+        updateExecutionStatus(runtime, startTime, timeout);
     }
 
     /**
-     * Method to reset the internal state of the solver.
+     * Method to evaluate the successors of a subset (depth-first visit): the MHS are passed to the sink and the
+     * successors OK are pushed on the stack, in the frame of the subset.
+     *
+     * @param evaluator the engine to compute and scan the representative vectors
+     * @param sink      the consumer of the MHS found
+     * @param e         the sorted indices of the elements of the subset
+     * @param size      the number of elements (i.e. the depth of the subset)
+     * @param cols      the number of columns
+     * @param stack     the stack of the successors OK
+     * @param frameEnd  the end of the frame of each depth inside the stack
+     * @param startTime the starting time of MBase
+     * @param timeout   the maximum time limit
+     * @return the stack (reallocated if it was full)
+     * @throws Exception
      */
-    private void resetSolverVariables() {
-        this.outOfMemory = false;
-        this.outOfTime = false;
-        this.numberMHSFound = 0;
-        this.executionTime = 0;
-        this.maxCardinality = 0;
-        this.minCardinality = 0;
-        this.consumedMemory = 0;
+    private int[] expandDepthFirst(CandidateEvaluator evaluator, MinimalHittingSetSink sink, int[] e, int size, int cols, int[] stack, int[] frameEnd, long startTime, long timeout) throws Exception {
+        // Compute the representative vector of e once for all its successors
+        evaluator.setParent(e, size);
+
+        for (int i = getSucc(getLast(e, size), cols); i < cols && !limitReached && (System.currentTimeMillis() - startTime) <= timeout; i++) {
+            int currentCardinality = size + 1;
+
+            if (minCardinality == 0)
+                minCardinality = currentCardinality;
+
+            if (maxCardinality < currentCardinality)
+                maxCardinality = currentCardinality;
+
+            // Derive the representative vector of e + {i} from the one of e and the column i
+            int result = evaluator.evaluateChild(i);
+
+            if (result == CandidateEvaluator.OK && i < cols - 1) { // OK && NOT(last lexicographical element)
+                if (isOverCardinalityBound(size + 1)) {
+                    cardinalityBoundReached = true; // Its successors would exceed the bound
+                } else {
+                    if (frameEnd[size] == stack.length)
+                        stack = Arrays.copyOf(stack, 2 * stack.length);
+                    stack[frameEnd[size]++] = i; // MHS aspirant
+                }
+            }
+
+            if (result == CandidateEvaluator.MHS) { // MHS
+                e[size] = i;
+                addMinimalHittingSet(sink, e, size + 1);
+            }
+        }
+
+        return stack;
     }
 
     /**
-     * Print information about MBase execution.
+     * Method to update the status of the solver at the end of the visit (i.e. limit reached or out of time).
      *
      * @param runtime
+     * @param startTime the starting time of MBase
+     * @param timeout   the maximum time limit
      */
-    private void printMBaseExecutionInformation(Runtime runtime) {
-        System.out.println("Number of MHS found (in " + executionTime + " ms)" + ": " + numberMHSFound);
-        System.out.println("Minimum cardinality: " + minCardinality);
-        System.out.println("Maximum cardinality: " + maxCardinality);
-        printUsedMemory(runtime, "Consumed memory (MBase): ");
+    private void updateExecutionStatus(Runtime runtime, long startTime, long timeout) {
+        long endTime = System.currentTimeMillis();
+
+        if (limitReached) {
+            System.out.println("Execution stopped > Cause: LIMIT OF " + limit + " MHS REACHED");
+        } else if ((endTime - startTime) > timeout) {
+            System.err.println("Execution interrupted > Cause: OUT OF TIME");
+            outOfTime = true;
+        }
+
+        consumedMemory = bytesToMegaBytes(runtime.totalMemory() - runtime.freeMemory());
     }
 
     /**
-     * Method to compute the cardinality of the MHS found.
+     * Method to take a batch of subsets from the queue and expand them concurrently. The successors are added to the
+     * queue (and to the list of MHS) in the same order of the sequential execution.
      *
-     * @param e a subset of lexicographical elements
-     * @return the number of active lexicographical elements, namely the cardinality
+     * @param pool       the pool of workers
+     * @param queue      the queue of the subsets of lexicographical elements
+     * @param sink       the consumer of the MHS found
+     * @param cols       the number of columns of the input matrix
+     * @param evaluators the engine of each worker
+     * @param startTime  the starting time of MBase
+     * @param timeout    the maximum time limit
      */
-    private int getCardinality(boolean[] e) {
-        return Booleans.countTrue(e);
+    private void expandQueueBatch(ForkJoinPool pool, FrontierQueue queue, MinimalHittingSetSink sink, int cols, ThreadLocal<CandidateEvaluator> evaluators, long startTime, long timeout) throws IOException {
+        final int batchSize = (int) Math.min(queue.size(), PARALLEL_BATCH_SIZE);
+        final int[][] parents = new int[batchSize][];
+        final int[] e = new int[cols];
+        final int[] mhs = new int[cols];
+
+        for (int p = 0; p < batchSize; p++) {
+            int size = queue.poll(e);
+            parents[p] = Arrays.copyOf(e, size);
+        }
+
+        final Successors[] successors = new Successors[batchSize];
+
+        pool.invoke(new ExpansionTask(parents, successors, 0, batchSize, cols, evaluators, startTime, timeout));
+
+        // Merge the results following the order of the parents
+        for (int p = 0; p < batchSize; p++) {
+            final Successors s = successors[p];
+
+            if (s == null) // Not expanded (i.e. out of time)
+                continue;
+
+            if (s.cardinality > 0) {
+                if (minCardinality == 0)
+                    minCardinality = s.cardinality;
+
+                if (maxCardinality < s.cardinality)
+                    maxCardinality = s.cardinality;
+            }
+
+            if (s.pruned)
+                cardinalityBoundReached = true;
+
+            for (int k = 0; k < s.numberOfCandidates; k++) {
+                queue.addSuccessor(parents[p], parents[p].length, s.candidates[k]);
+            }
+
+            for (int k = 0; k < s.numberOfMhs && !limitReached; k++) {
+                System.arraycopy(parents[p], 0, mhs, 0, parents[p].length);
+                mhs[parents[p].length] = s.mhs[k];
+                addMinimalHittingSet(sink, mhs, parents[p].length + 1);
+            }
+        }
     }
 
     /**
-     * Print the memory consumed.
+     * Method to handle the saturation of the memory during the MBase execution.
      *
      * @param runtime
-     * @param s
+     * @param queue   the queue of the subsets of lexicographical elements
      */
-    private void printUsedMemory(Runtime runtime, String s) {
-        long memoryAfter = runtime.totalMemory() - runtime.freeMemory();
-        System.out.println(s + bytesToMegaBytes(memoryAfter) + "MB");
+    private void handleOutOfMemory(Runtime runtime, FrontierQueue queue) {
+        handleOutOfMemory(runtime);
+        queue.clear(); // More free memory space
     }
 
     /**
-     * Method to compute the submatrix of a subset of elements.
+     * Method to handle the saturation of the memory during the MBase execution.
      *
-     * @param e      the subset of lexicographical elements
-     * @param matrix the matrix from which take the submatrix
-     * @return a submatrix containing the only lexicographical elements
-     * @throws Exception
+     * @param runtime
      */
-    private SubMatrix getSubMatrix(boolean[] e, boolean[][] matrix) throws Exception {
-        // Number of columns of the submatrix (i.e. number of 1 in e[])
-        int numOfCols = getNumberOfElements(e);
-
-        boolean[][] boolSubMatrix = new boolean[matrix.length][numOfCols];
-        // Elements (columns) that make up the submatrix
-        ArrayList<Integer> elements = new ArrayList<>();
-        int col = 0; // Columns counter for the submatrix (col < inputMatrix[0].length)
-
-        for (int k = getFirstElement(e); k < e.length; k++) {
-            if (e[k] && col < numOfCols) {
-                elements.add(k);
-                for (int i = 0; i < matrix.length; i++) { // rows
-                    boolSubMatrix[i][col] = matrix[i][k];
-                }
-                col++;
-            }
-        }
-
-        return new SubMatrix(elements, boolSubMatrix);
+    private void handleOutOfMemory(Runtime runtime) {
+        System.err.println("Execution interrupted > Cause: OUT OF MEMORY");
+        consumedMemory = bytesToMegaBytes(runtime.totalMemory() - runtime.freeMemory());
+        outOfMemory = true;
     }
 
     /**
-     * Method to compute the number of active lexicographical elements in the element e[].
+     * Method to create the factory of the engines that evaluate the subsets of lexicographical elements (one engine
+     * for each worker).
      *
-     * @param e the array representing a subset of lexicographical elements
-     * @return the number of lexicographical elements contained
+     * @param boolMatrix   the input boolean matrix (null if sparse)
+     * @param sparseMatrix the sparse input matrix (null if dense)
+     * @return the factory of the sparse engine if the matrix is sparse, otherwise of the bit-packed engine if selected,
+     * otherwise of the engine working on the boolean matrix
      */
-    private int getNumberOfElements(boolean[] e) {
-        return Booleans.countTrue(e);
+    private Supplier<CandidateEvaluator> getCandidateEvaluatorFactory(boolean[][] boolMatrix, SparseMatrix sparseMatrix) {
+        if (sparseMatrix != null)
+            return () -> new SparseMatrixEvaluator(sparseMatrix);
+
+        if (bitPacked) {
+            // Bit-packed representation of the input matrix (shared by all the engines)
+            final BitMatrix bitMatrix = new BitMatrix(boolMatrix);
+            return () -> new BitMatrixEvaluator(bitMatrix);
+        }
+
+        return () -> new BoolMatrixEvaluator(boolMatrix, debug);
     }
 
     /**
-     * Method to scan the representative vector and get the scalar result.
+     * Method to pass a MHS to the sink (expanded over the classes of identical columns, if compressed).
      *
-     * @param rv       the representative vector
-     * @param elements the lexicographical elements considered
-     * @return MHS = 2, OK = 1, KO = 0
+     * @param sink     the consumer of the MHS found
+     * @param elements the sorted indices of the elements of the MHS
+     * @param size     the number of elements of the MHS
+     * @throws IOException
      */
-    private int checkModule(int[] rv, ArrayList<Integer> elements) throws Exception {
-        // RV does not have 0 inside
-        boolean empty = false;
+    private void addMinimalHittingSet(MinimalHittingSetSink sink, int[] elements, int size) throws IOException {
+        if (columnClasses == null) {
+            acceptMinimalHittingSet(sink, elements, size);
+            return;
+        }
 
-        // List of elements found inside the RV
-        ArrayList<Integer> elementsFound = new ArrayList<>();
+        // Each combination of one column of the class of each element (the last element changes first)
+        Arrays.fill(expansionIndex, 0, size, 0);
 
-        for (int j = 0; j < elements.size(); j++) {
-            for (int i = 0; i < rv.length; i++) {
-                if (rv[i] == 0 && !empty) { // The cell(i) of RV is empty
-                    empty = true;
-                    continue;
-                }
-                // The cell(i) is the lexicographical element to find in order to reach OK or MHS result
-                if (!elementsFound.contains(elements.get(j)) && rv[i] == elements.get(j) + 1) {
-                    elementsFound.add(elements.get(j));
-                }
+        while (true) {
+            for (int k = 0; k < size; k++) {
+                expandedElements[k] = columnClasses.getMember(elements[k], expansionIndex[k]);
             }
-        }
-
-        if (debug)
-            System.out.println("elementsFound: " + elementsFound);
+            Arrays.sort(expandedElements, 0, size);
+            acceptMinimalHittingSet(sink, expandedElements, size);
 
-        // RV is completely projected on the lexicographical element considered (i.e. P(RV) = E)
-        boolean rvFullProjected = true;
+            int k = size - 1;
+            while (k >= 0 && ++expansionIndex[k] == columnClasses.getClassSize(elements[k])) {
+                expansionIndex[k] = 0;
+                k--;
+            }
 
-        // Check all the elements found
-        for (int i = 0; i < elements.size(); i++) {
-            if (elementsFound.contains(elements.get(i)))
-                continue;
+            if (k < 0 || limitReached)
+                break;
 
-            // The i-th element (i.e. column) is not found
-            rvFullProjected = false;
-            break;
+            if ((System.currentTimeMillis() - startTimeExecution) > timeoutExecution) {
+                outOfTime = true;
+                break;
+            }
         }
+    }
 
-        if (debug)
-            System.out.println("empty: " + empty + "\nprojection: " + rvFullProjected);
+    /**
+     * Method to pass a MHS of the input matrix to the sink and update the number of MHS found and their cardinality.
+     *
+     * @param sink     the consumer of the MHS found
+     * @param elements the sorted indices of the elements of the MHS
+     * @param size     the number of elements of the MHS
+     * @throws IOException
+     */
+    private void acceptMinimalHittingSet(MinimalHittingSetSink sink, int[] elements, int size) throws IOException {
+        numberMHSFound++;
 
-        // RV does not contain 0 and P(RV) = E
-        if (!empty && rvFullProjected) // MHS
-            return 2;
+        final int cardinality = essentialElements + size;
 
-        // RV contains at least a 0 and P(RV) = E
-        if (empty && rvFullProjected) // OK (MHS candidate)
-            return 1;
+        if (numberMHSFound == 1 || cardinality < minCardinalityMHS)
+            minCardinalityMHS = cardinality;
 
-        // P(RV) != E
-        if (!rvFullProjected) // KO
-            return 0;
+        if (maxCardinalityMHS < cardinality)
+            maxCardinalityMHS = cardinality;
 
-        // This line is reached only if there are some logical problems in the algorithm!
-        throw new Exception(MSG_EXCEPTION_CHECK_MODULE);
+        sink.accept(elements, size);
+
+        if (limit > 0 && numberMHSFound >= limit)
+            limitReached = true;
     }
 
     /**
-     * Method to compute a representative vector.
+     * Method to check if the successors of a subset would exceed the maximum cardinality bound (the essential
+     * elements are counted too).
      *
-     * @param subMatrix the submatrix representing the subset of lexicographical elements
-     * @return a representative vector which size equals to the number of submatrix rows
-     * @throws Exception
+     * @param cardinality the cardinality of the subset
+     * @return true if the subset cannot be expanded without exceeding the bound
      */
-    private int[] getRepresentativeVector(SubMatrix subMatrix) throws Exception {
-        boolean[][] boolSubMatrix = subMatrix.getBoolMatrix();
-        // RV has the submatrix number of rows (also of the input matrix)
-        int[] rv = new int[boolSubMatrix.length];
-
-        if (debug)
-            MinimalHittingSetFacade.printBoolMatrix(boolSubMatrix, "Submatrix: ");
-
-            for (int j = 0; j < boolSubMatrix[0].length; j++) { // j = cols
-                for (int i = 0; i < boolSubMatrix.length; i++) { // i = rows
-                    // Check the elements considered in the submatrix
-                    if (!subMatrix.getElements().isEmpty()) {
-                        if (rv[i] == -1 && boolSubMatrix[i][j]) {
-                            rv[i] = -1; // x-value (i.e. the i-th set intersect at least 2 elements of submatrix)
-                            continue;
-                        }
-
-                        if (rv[i] == 0 && boolSubMatrix[i][j]) {
-                            rv[i] = subMatrix.getElements().get(j) + 1; // Store the "real" value of the column
-                            continue;
-                        }
-
-                        if (rv[i] != (subMatrix.getElements().get(j) + 1) && boolSubMatrix[i][j]) {
-                            rv[i] = -1; // x-value (i.e. the i-th set intersect at least 2 elements of submatrix)
-//                        continue;
-                        }
-
-//                    // Can be removed
-//                    if (rv[i] == (subMatrix.getElements().get(j) + 1) && boolSubMatrix[i][j]) {
-//                        rv[i] = subMatrix.getElements().get(j) + 1; //
-//                    }
-                    }
-
-                }
-            }
+    private boolean isOverCardinalityBound(int cardinality) {
+        return maxCardinalityBound > 0 && essentialElements + cardinality >= maxCardinalityBound;
+    }
 
-        return rv;
+    /**
+     * Method to reset the internal state of the solver.
+     */
+    private void resetSolverVariables() {
+        this.outOfMemory = false;
+        this.outOfTime = false;
+        this.numberMHSFound = 0;
+        this.minCardinalityMHS = 0;
+        this.maxCardinalityMHS = 0;
+        this.executionTime = 0;
+        this.maxCardinality = 0;
+        this.minCardinality = 0;
+        this.consumedMemory = 0;
+        this.frontierPeakSize = 0;
+        this.frontierPeakMemory = 0;
+        this.frontierSpilledSize = 0;
+        this.cardinalityBoundReached = false;
+        this.limitReached = false;
+        this.essentialElements = 0;
+        this.numberOfComponents = 1;
+        this.columnClasses = null;
+        this.columnsSolved = 0;
     }
 
     /**
-     * Method to compute the first element in lexicographical order active in the subset.
+     * Print information about MBase execution.
      *
-     * @param e a subset of elements in lexicographical order
-     * @return the position of the first lexicographical element
+     * @param runtime
      */
-    private int getFirstElement(boolean[] e) throws Exception {
-        for (int i = 0; i < e.length; i++) {
-            if (e[i]) {
-                return i;
-            }
-        }
+    private void printMBaseExecutionInformation(Runtime runtime) {
+        System.out.println("Number of MHS found (in " + executionTime + " ms)" + ": " + numberMHSFound);
+        System.out.println("Minimum cardinality: " + minCardinality);
+        System.out.println("Maximum cardinality: " + maxCardinality);
+        System.out.println("Queue peak: " + frontierPeakSize + " subsets (" + bytesToKiloBytes(frontierPeakMemory) + " KB)");
+        if (spillBudget > 0)
+            System.out.println("Queue spilled to disk: " + frontierSpilledSize + " subsets");
+        if (numberOfComponents > 1)
+            System.out.println("Connected components: " + numberOfComponents);
+        if (columnClasses != null)
+            System.out.println("Columns solved (identical columns merged): " + columnsSolved);
+        if (cardinalityBoundReached)
+            System.out.println("Search bounded to cardinality: " + maxCardinalityBound);
+        printUsedMemory(runtime, "Consumed memory (MBase): ");
+    }
 
-        // This line is never reached if the algorithm logic is correct!
-        throw new Exception(MSG_EXCEPTION_GET_FIRST_ELEMENT);
+    /**
+     * Print the memory consumed.
+     *
+     * @param runtime
+     * @param s
+     */
+    private void printUsedMemory(Runtime runtime, String s) {
+        long memoryAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.println(s + bytesToMegaBytes(memoryAfter) + "MB");
     }
 
     /**
@@ -478,17 +910,120 @@ public class MinimalHittingSetSolver {
     /**
      * Method to compute the last active element inside the subset of lexicographical elements.
      *
-     * @param e the subset of lexicographical elements
-     * @return the index of the last active element inside e[] (i.e. max())
+     * @param e    the sorted indices of the elements of the subset
+     * @param size the number of elements
+     * @return the index of the last active element inside e[] (i.e. max()), -1 if the subset is empty
+     */
+    private int getLast(int[] e, int size) {
+        return size > 0 ? e[size - 1] : -1;
+    }
+
+    /**
+     * This class collects the successors of a subset of lexicographical elements (parallel mode): each successor is
+     * identified by the element added to the parent.
+     */
+    private static class Successors {
+        // Successors OK (i.e. MHS aspirants)
+        private int[] candidates = new int[0];
+        private int numberOfCandidates = 0;
+        // Successors MHS
+        private int[] mhs = new int[0];
+        private int numberOfMhs = 0;
+        // Cardinality of the successors evaluated (0 if none)
+        private int cardinality = 0;
+        // Some successors OK were discarded because of the maximum cardinality bound
+        private boolean pruned = false;
+
+        private void addCandidate(int element) {
+            if (numberOfCandidates == candidates.length)
+                candidates = Arrays.copyOf(candidates, Math.max(4, 2 * candidates.length));
+            candidates[numberOfCandidates++] = element;
+        }
+
+        private void addMhs(int element) {
+            if (numberOfMhs == mhs.length)
+                mhs = Arrays.copyOf(mhs, Math.max(4, 2 * mhs.length));
+            mhs[numberOfMhs++] = element;
+        }
+    }
+
+    /**
+     * This class represents the task to expand a range of subsets taken from the queue (parallel mode):
+     * the range is split until it is small enough, then the subsets are expanded with the engine of the worker.
      */
-    private int getLast(boolean[] e) {
-        int last = e.length;
+    private class ExpansionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] parents;
+        private final Successors[] successors;
+        private final int from;
+        private final int to;
+        private final int cols;
+        private final ThreadLocal<CandidateEvaluator> evaluators;
+        private final long startTime;
+        private final long timeout;
+
+        private ExpansionTask(int[][] parents, Successors[] successors, int from, int to, int cols, ThreadLocal<CandidateEvaluator> evaluators, long startTime, long timeout) {
+            this.parents = parents;
+            this.successors = successors;
+            this.from = from;
+            this.to = to;
+            this.cols = cols;
+            this.evaluators = evaluators;
+            this.startTime = startTime;
+            this.timeout = timeout;
+        }
 
-        do {
-            last--;
-        } while ((last > -1) && (!e[last]));
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ExpansionTask(parents, successors, from, middle, cols, evaluators, startTime, timeout),
+                        new ExpansionTask(parents, successors, middle, to, cols, evaluators, startTime, timeout));
+                return;
+            }
 
-        return last;
+            try {
+                expand();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * Method to expand the subsets of the range, as in the sequential execution.
+         *
+         * @throws Exception
+         */
+        private void expand() throws Exception {
+            final CandidateEvaluator evaluator = evaluators.get();
+
+            for (int p = from; p < to && (System.currentTimeMillis() - startTime) <= timeout; p++) {
+                final int[] e = parents[p];
+                final Successors s = new Successors();
+                successors[p] = s;
+
+                // Compute the representative vector of e once for all its successors
+                evaluator.setParent(e, e.length);
+
+                for (int i = getSucc(getLast(e, e.length), cols); i < cols && (System.currentTimeMillis() - startTime) <= timeout; i++) {
+                    s.cardinality = e.length + 1;
+
+                    // Derive the representative vector of e + {i} from the one of e and the column i
+                    int result = evaluator.evaluateChild(i);
+
+                    if (result == CandidateEvaluator.OK && i < cols - 1) { // OK && NOT(last lexicographical element)
+                        if (isOverCardinalityBound(e.length + 1))
+                            s.pruned = true; // Its successors would exceed the bound
+                        else
+                            s.addCandidate(i); // MHS aspirant
+                    }
+
+                    if (result == CandidateEvaluator.MHS) // MHS
+                        s.addMhs(i);
+                }
+            }
+        }
     }
 
 }
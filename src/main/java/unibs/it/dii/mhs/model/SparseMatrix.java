@@ -0,0 +1,153 @@
+package unibs.it.dii.mhs.model;
+
+/**
+ * This class represents a sparse boolean matrix: only the positions of the ones are stored, both by row (CSR, i.e.
+ * the sorted columns of each row) and by column (CSC, i.e. the sorted rows of each column). The memory is
+ * proportional to the number of ones instead of rows x columns.
+ */
+public class SparseMatrix {
+
+    private final int rows;
+    private final int cols;
+    // Columns of the row i: rowCols[rowStart[i]] ... rowCols[rowStart[i + 1] - 1]
+    private final int[] rowStart;
+    private final int[] rowCols;
+    // Rows of the column j: colRows[colStart[j]] ... colRows[colStart[j + 1] - 1]
+    private final int[] colStart;
+    private final int[] colRows;
+
+    /**
+     * @param rows     the number of rows
+     * @param cols     the number of columns
+     * @param rowStart the start of each row inside rowCols (rows + 1 entries, the last one is the number of ones)
+     * @param rowCols  the columns of each row (sorted, without duplicates)
+     */
+    public SparseMatrix(int rows, int cols, int[] rowStart, int[] rowCols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.rowStart = rowStart;
+        this.rowCols = rowCols;
+
+        // Transpose the rows (counting sort by column: the rows of each column are sorted)
+        final int nonZeros = rowStart[rows];
+        this.colStart = new int[cols + 1];
+        this.colRows = new int[nonZeros];
+
+        for (int p = 0; p < nonZeros; p++) {
+            colStart[rowCols[p] + 1]++;
+        }
+        for (int j = 0; j < cols; j++) {
+            colStart[j + 1] += colStart[j];
+        }
+
+        final int[] count = new int[cols];
+        for (int i = 0; i < rows; i++) {
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                final int j = rowCols[p];
+                colRows[colStart[j] + count[j]++] = i;
+            }
+        }
+    }
+
+    /**
+     * @param matrix the boolean matrix
+     */
+    public SparseMatrix(boolean[][] matrix) {
+        this(matrix.length, matrix.length > 0 ? matrix[0].length : 0, getRowStart(matrix), getRowCols(matrix));
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return the number of ones of the matrix
+     */
+    public int getNonZeros() {
+        return rowStart[rows];
+    }
+
+    /**
+     * @return the start of each row inside {@link #getRowCols()} (rows + 1 entries)
+     */
+    public int[] getRowStart() {
+        return rowStart;
+    }
+
+    /**
+     * @return the columns of each row, row after row
+     */
+    public int[] getRowCols() {
+        return rowCols;
+    }
+
+    /**
+     * @return the start of each column inside {@link #getColRows()} (cols + 1 entries)
+     */
+    public int[] getColStart() {
+        return colStart;
+    }
+
+    /**
+     * @return the rows of each column, column after column
+     */
+    public int[] getColRows() {
+        return colRows;
+    }
+
+    /**
+     * Method to build the dense boolean matrix.
+     *
+     * @return the boolean matrix
+     */
+    public boolean[][] toBoolMatrix() {
+        final boolean[][] matrix = new boolean[rows][cols];
+
+        for (int i = 0; i < rows; i++) {
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                matrix[i][rowCols[p]] = true;
+            }
+        }
+
+        return matrix;
+    }
+
+    private static int[] getRowStart(boolean[][] matrix) {
+        final int[] rowStart = new int[matrix.length + 1];
+
+        for (int i = 0; i < matrix.length; i++) {
+            rowStart[i + 1] = rowStart[i];
+            for (boolean cell : matrix[i]) {
+                if (cell)
+                    rowStart[i + 1]++;
+            }
+        }
+
+        return rowStart;
+    }
+
+    private static int[] getRowCols(boolean[][] matrix) {
+        int nonZeros = 0;
+        for (boolean[] row : matrix) {
+            for (boolean cell : row) {
+                if (cell)
+                    nonZeros++;
+            }
+        }
+
+        final int[] rowCols = new int[nonZeros];
+        int p = 0;
+        for (boolean[] row : matrix) {
+            for (int j = 0; j < row.length; j++) {
+                if (row[j])
+                    rowCols[p++] = j;
+            }
+        }
+
+        return rowCols;
+    }
+}
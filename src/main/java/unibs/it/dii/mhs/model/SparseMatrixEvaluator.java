@@ -0,0 +1,110 @@
+package unibs.it.dii.mhs.model;
+
+/**
+ * This class evaluates the subsets of lexicographical elements on a {@link SparseMatrix}: the representative vector
+ * of the parent is built from the rows of its columns only (CSC), and each child is checked by visiting the rows of the
+ * column added. The cost of an evaluation depends on the number of ones of the columns, not on the number of rows.
+ */
+public class SparseMatrixEvaluator implements CandidateEvaluator {
+
+    private final int rows;
+    private final int[] colStart;
+    private final int[] colRows;
+    // Representative vector of the parent
+    private final int[] parentRv;
+    // Elements of the parent
+    private final int[] parentElements;
+    private int parentSize;
+    // Number of rows hit by the parent (i.e. RV != 0)
+    private int rowsCovered;
+    // Number of rows hit only by each element of the parent (indexed by element)
+    private final int[] uniqueRows;
+    // Number of rows hit only by each element of the parent and also by the new element (indexed by element)
+    private final int[] lostRows;
+
+    public SparseMatrixEvaluator(SparseMatrix matrix) {
+        this.rows = matrix.getRows();
+        this.colStart = matrix.getColStart();
+        this.colRows = matrix.getColRows();
+        this.parentRv = new int[rows];
+        this.parentElements = new int[matrix.getCols()];
+        this.parentSize = 0;
+        this.uniqueRows = new int[matrix.getCols()];
+        this.lostRows = new int[matrix.getCols()];
+    }
+
+    @Override
+    public void setParent(int[] elements, int size) {
+        // Reset only the rows hit by the previous parent
+        for (int k = 0; k < parentSize; k++) {
+            final int element = parentElements[k];
+            for (int p = colStart[element]; p < colStart[element + 1]; p++) {
+                parentRv[colRows[p]] = 0;
+            }
+        }
+
+        parentSize = 0;
+        rowsCovered = 0;
+
+        // Fold the rows of the elements into the representative vector
+        for (int k = 0; k < size; k++) {
+            final int element = elements[k];
+
+            for (int p = colStart[element]; p < colStart[element + 1]; p++) {
+                final int i = colRows[p];
+
+                if (parentRv[i] == 0) {
+                    parentRv[i] = element + 1; // Store the "real" value of the column
+                    rowsCovered++;
+                } else {
+                    parentRv[i] = -1; // x-value (i.e. the i-th set intersect at least 2 elements of the subset)
+                }
+            }
+
+            parentElements[parentSize++] = element;
+        }
+
+        // Number of rows hit only by each element of the parent
+        for (int k = 0; k < size; k++) {
+            final int element = elements[k];
+
+            uniqueRows[element] = 0;
+            for (int p = colStart[element]; p < colStart[element + 1]; p++) {
+                if (parentRv[colRows[p]] == element + 1)
+                    uniqueRows[element]++;
+            }
+        }
+    }
+
+    @Override
+    public int evaluateChild(int element) {
+        // Rows hit by the new element and not by the parent
+        int newRows = 0;
+
+        for (int k = 0; k < parentSize; k++) {
+            lostRows[parentElements[k]] = 0;
+        }
+
+        // Visit the rows of the new element against the RV of the parent
+        for (int p = colStart[element]; p < colStart[element + 1]; p++) {
+            final int value = parentRv[colRows[p]];
+
+            if (value == 0)
+                newRows++;
+            else if (value > 0)
+                lostRows[value - 1]++; // The row becomes an x-value
+        }
+
+        if (newRows == 0) // P(RV) != E
+            return KO;
+
+        // Each element of the parent must still be the only one to hit at least one row
+        for (int k = 0; k < parentSize; k++) {
+            if (lostRows[parentElements[k]] == uniqueRows[parentElements[k]]) // P(RV) != E
+                return KO;
+        }
+
+        // RV does not contain 0
+        return rowsCovered + newRows == rows ? MHS : OK;
+    }
+}
@@ -0,0 +1,250 @@
+package unibs.it.dii.mhs.model;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class implements the queue of MBase bounded in memory: once the memory budget is reached, the new subsets
+ * are appended to a temporary file (segment) and read back in FIFO order when the subsets in memory are drained.
+ * While a segment is read back, the new subsets go to the next segment, so the order of the queue is preserved.
+ * The segments are stored in a temporary directory of the queue: each segment is deleted as soon as it is read back,
+ * the directory when the queue is closed.
+ */
+public class SpillingFrontierQueue extends FrontierQueue implements Closeable {
+
+    private static final String SPILL_DIRECTORY_PREFIX = "mhs-queue-";
+    private static final String SPILL_FILE_PREFIX = "segment-";
+    private static final String SPILL_FILE_SUFFIX = ".spill";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final long memoryBudget;
+    // Directory where the temporary directory of the queue is created
+    private final Path parentDirectory;
+    // Temporary directory of the segments (created at the first spill)
+    private Path directory;
+    // Segment where the new subsets are appended
+    private Path outputFile;
+    private DataOutputStream output;
+    private long outputSize;
+    // Segment read back into memory
+    private Path inputFile;
+    private DataInputStream input;
+    private long inputSize;
+    // Buffer to move a subset from the input segment into memory
+    private int[] buffer;
+    // Number of subsets written on disk
+    private long spilledSize;
+
+    /**
+     * @param memoryBudget the maximum number of bytes of the queue in memory
+     * @param directory    the directory where the temporary files are created
+     */
+    public SpillingFrontierQueue(long memoryBudget, Path directory) {
+        super();
+        this.memoryBudget = memoryBudget;
+        this.parentDirectory = directory;
+        this.buffer = new int[0];
+        this.spilledSize = 0;
+    }
+
+    /**
+     * @return the number of subsets written on disk
+     */
+    public long getSpilledSize() {
+        return spilledSize;
+    }
+
+    @Override
+    public long size() {
+        return super.size() + inputSize + outputSize;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return super.isEmpty() && inputSize == 0 && outputSize == 0;
+    }
+
+    @Override
+    public void add(int[] elements, int length) {
+        if (!mustSpill()) {
+            super.add(elements, length);
+            return;
+        }
+
+        try {
+            openOutput();
+            output.writeInt(length);
+            for (int k = 0; k < length; k++) {
+                output.writeInt(elements[k]);
+            }
+            outputSize++;
+            spilledSize++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void addSuccessor(int[] elements, int length, int element) {
+        if (!mustSpill()) {
+            super.addSuccessor(elements, length, element);
+            return;
+        }
+
+        try {
+            openOutput();
+            output.writeInt(length + 1);
+            for (int k = 0; k < length; k++) {
+                output.writeInt(elements[k]);
+            }
+            output.writeInt(element);
+            outputSize++;
+            spilledSize++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int poll(int[] elements) {
+        if (super.isEmpty()) {
+            try {
+                readBack();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return super.poll(elements);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        outputSize = 0;
+        inputSize = 0;
+
+        try {
+            closeOutput();
+            closeInput();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method to check if a new subset has to be written on disk: the order of the queue is preserved only if all the
+     * subsets on disk are read before the new one.
+     *
+     * @return true if the new subset has to be appended to the output segment
+     */
+    private boolean mustSpill() {
+        return outputSize > 0 || inputSize > 0 || super.getMemory() >= memoryBudget;
+    }
+
+    /**
+     * Method to move the subsets from disk into memory (until the memory budget is reached): the output segment becomes
+     * the input segment when the previous one is completely read.
+     *
+     * @throws IOException
+     */
+    private void readBack() throws IOException {
+        if (inputSize == 0) {
+            closeInput();
+            closeOutput();
+
+            // Read the last segment written
+            inputFile = outputFile;
+            inputSize = outputSize;
+            outputFile = null;
+            outputSize = 0;
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(inputFile), BUFFER_SIZE));
+        }
+
+        do {
+            int length = input.readInt();
+            if (buffer.length < length)
+                buffer = new int[length];
+
+            for (int k = 0; k < length; k++) {
+                buffer[k] = input.readInt();
+            }
+            inputSize--;
+
+            super.add(buffer, length);
+        } while (inputSize > 0 && super.getMemory() < memoryBudget);
+
+        if (inputSize == 0)
+            closeInput();
+    }
+
+    private void openOutput() throws IOException {
+        if (output != null)
+            return;
+
+        if (directory == null)
+            directory = Files.createTempDirectory(parentDirectory, SPILL_DIRECTORY_PREFIX);
+
+        outputFile = Files.createTempFile(directory, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX);
+        output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(outputFile), BUFFER_SIZE));
+    }
+
+    /**
+     * Method to close the output segment: the file is deleted only if it does not contain subsets to read.
+     *
+     * @throws IOException
+     */
+    private void closeOutput() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+
+        if (outputFile != null && outputSize == 0) {
+            Files.deleteIfExists(outputFile);
+            outputFile = null;
+        }
+    }
+
+    /**
+     * Method to close the input segment and delete it (all its subsets are read or discarded).
+     *
+     * @throws IOException
+     */
+    private void closeInput() throws IOException {
+        if (input != null) {
+            input.close();
+            input = null;
+        }
+
+        if (inputFile != null) {
+            Files.deleteIfExists(inputFile);
+            inputFile = null;
+        }
+    }
+
+    /**
+     * Method to discard the subsets of the queue and delete the temporary directory with its segments.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            clear();
+        } finally {
+            if (directory != null) {
+                // Segments left by an interrupted write (e.g. OutOfMemoryError)
+                try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory)) {
+                    for (Path segment : segments) {
+                        Files.deleteIfExists(segment);
+                    }
+                }
+                Files.deleteIfExists(directory);
+                directory = null;
+            }
+        }
+    }
+}
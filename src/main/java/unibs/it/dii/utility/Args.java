@@ -2,6 +2,7 @@ package unibs.it.dii.utility;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.converters.PathConverter;
+import com.beust.jcommander.validators.PositiveInteger;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -55,9 +56,181 @@ public class Args {
         return preProcessing;
     }
 
+    @Parameter(
+            names = {"-bp", "--bit-packed"},
+            description = "Execute MBase on the bit-packed representation of the input matrix (one bitset per column)"
+    )
+
+    private boolean bitPacked = false;
+
+    public boolean isBitPacked() {
+        return bitPacked;
+    }
+
+    @Parameter(
+            names = {"-th", "--threads"},
+            description = "Number of threads used to expand the MBase queue and to compute the Pre-Elaboration (1 = sequential execution)",
+            validateWith = PositiveInteger.class
+    )
+
+    private int threads = 1;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @Parameter(
+            names = {"-sb", "--spill-budget"},
+            description = "Maximum memory in megabytes (MB) of the MBase queue before writing it on disk (0 = no limit)",
+            validateWith = PositiveInteger.class
+    )
+
+    private long spillBudget = 0;
+
+    public long getSpillBudget() {
+        return spillBudget;
+    }
+
+    @Parameter(
+            names = {"-k", "--max-cardinality"},
+            description = "Maximum cardinality of the MHS to find (0 = no limit)",
+            validateWith = PositiveInteger.class
+    )
+
+    private int maxCardinality = 0;
+
+    public int getMaxCardinality() {
+        return maxCardinality;
+    }
+
+    @Parameter(
+            names = {"-l", "--limit"},
+            description = "Maximum number of MHS to find for each input matrix (0 = no limit)",
+            validateWith = PositiveInteger.class
+    )
+
+    private int limit = 0;
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Parameter(
+            names = {"-df", "--depth-first"},
+            description = "Execute MBase visiting the subsets depth-first with a stack instead of the queue (sequential execution, different order of the MHS)"
+    )
+
+    private boolean depthFirst = false;
+
+    public boolean isDepthFirst() {
+        return depthFirst;
+    }
+
+    @Parameter(
+            names = {"-dc", "--decompose"},
+            description = "Execute MBase on each connected component of the input matrix separately and combine their MHS (different order of the MHS)"
+    )
+
+    private boolean decompose = false;
+
+    public boolean isDecompose() {
+        return decompose;
+    }
+
+    @Parameter(
+            names = {"-cc", "--compress-columns"},
+            description = "Execute MBase on the input matrix with one column for each group of identical columns and expand each MHS over the group of its elements"
+    )
+
+    private boolean compressColumns = false;
+
+    public boolean isCompressColumns() {
+        return compressColumns;
+    }
+
+    @Parameter(
+            names = {"-gz", "--gzip"},
+            description = "Compress the output files with gzip (.out.gz)"
+    )
+
+    private boolean gzip = false;
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    @Parameter(
+            names = {"-j", "--jobs"},
+            description = "Number of benchmark files processed concurrently in automatic mode (1 = one file at a time)",
+            validateWith = PositiveInteger.class
+    )
+
+    private int jobs = 1;
+
+    public int getJobs() {
+        return jobs;
+    }
+
+    @Parameter(
+            names = {"-jl", "--json-lines"},
+            description = "Write the records of the CSV report also as JSON lines (.jsonl file next to the CSV file)"
+    )
+
+    private boolean jsonLines = false;
+
+    public boolean isJsonLines() {
+        return jsonLines;
+    }
+
+    @Parameter(
+            names = {"-fk", "--fork"},
+            description = "Process each benchmark file in a separate child JVM, killed if it does not end within the time limit plus a grace period"
+    )
+
+    private boolean fork = false;
+
+    public boolean isFork() {
+        return fork;
+    }
+
+    @Parameter(
+            names = {"-ch", "--child-heap"},
+            description = "Maximum heap in megabytes (MB) of each child JVM with --fork (0 = default of the JVM)",
+            validateWith = PositiveInteger.class
+    )
+
+    private int childHeap = 0;
+
+    public int getChildHeap() {
+        return childHeap;
+    }
+
+    @Parameter(
+            names = {"--report-pipe"},
+            description = "Send the record of the report to the supervisor JVM on standard output instead of the CSV file",
+            hidden = true
+    )
+
+    private boolean reportPipe = false;
+
+    public boolean isReportPipe() {
+        return reportPipe;
+    }
+
+    @Parameter(
+            names = {"-oe", "--output-encoding"},
+            description = "Encoding of the MHS in the output files: DENSE (a 0/1 token for each column), INDICES (the sorted columns of each MHS) or VARINT (binary, delta-encoded columns of each MHS)"
+    )
+
+    private OutputEncoding outputEncoding = OutputEncoding.DENSE;
+
+    public OutputEncoding getOutputEncoding() {
+        return outputEncoding;
+    }
+
     @Parameter(
             names = {"-in", "--input-file"},
-            description = "Absolute path of the input file .matrix",
+            description = "Absolute path of the input file .matrix (or .bmatrix, .smatrix)",
             converter = PathConverter.class
     )
 
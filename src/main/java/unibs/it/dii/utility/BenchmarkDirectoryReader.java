@@ -5,15 +5,20 @@ import org.apache.commons.io.FilenameUtils;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.stream.Stream;
 
 /**
- * Class to read the benchmark files (i.e. with .matrix extension) within a specified directory path.
+ * Class to read the benchmark files (i.e. with .matrix, .bmatrix or .smatrix extension) within a specified directory
+ * path. If a matrix is available in more formats, only one file is read: the binary one, else the sparse one.
  */
 public class BenchmarkDirectoryReader {
 
     private static final String FILE_MATRIX_EXTENSION = "matrix";
+    // Extensions of the benchmark files, from the preferred one
+    private static final String[] FILE_EXTENSIONS = {BinaryMatrixWriter.FILE_BINARY_MATRIX_EXTENSION, SparseMatrixWriter.FILE_SPARSE_MATRIX_EXTENSION, FILE_MATRIX_EXTENSION};
 
     private Path benchmarkDirectory;
 
@@ -31,10 +36,11 @@ public class BenchmarkDirectoryReader {
     public Queue<String> getListBenchmarkFileMatrix() throws IOException {
         Queue<String> results = new LinkedList<>();
 
-        Files.list(benchmarkDirectory)
-                .filter(f -> FilenameUtils.getExtension(f.toString()).equals(FILE_MATRIX_EXTENSION))
-                .sorted()
-                .forEach(f -> results.add(f.toString()));
+        try (Stream<Path> files = Files.list(benchmarkDirectory)) {
+            files.filter(this::isPreferredFormat)
+                    .sorted()
+                    .forEach(f -> results.add(f.toString()));
+        }
 
         if (results.isEmpty()) {
             System.err.println("No benchmark files found in: " + benchmarkDirectory.toString());
@@ -43,4 +49,22 @@ public class BenchmarkDirectoryReader {
 
         return results;
     }
+
+    /**
+     * @param file a file of the directory
+     * @return true if the file is a benchmark file and the same matrix is not available in a preferred format
+     */
+    private boolean isPreferredFormat(Path file) {
+        final String extension = FilenameUtils.getExtension(file.toString());
+        final String name = FilenameUtils.removeExtension(file.toString());
+
+        for (String preferred : FILE_EXTENSIONS) {
+            if (preferred.equals(extension))
+                return true;
+            if (Files.exists(Paths.get(name + "." + preferred)))
+                return false;
+        }
+
+        return false;
+    }
 }
@@ -0,0 +1,97 @@
+package unibs.it.dii.utility;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Class to write a matrix in the binary format (.bmatrix). The file has a header of {@value #HEADER_SIZE} bytes
+ * (little-endian):
+ * <ul>
+ *     <li>magic number "MHSB" (int) and version of the format (int);</li>
+ *     <li>flags (int): bit 0 set if the hash of the rows is present;</li>
+ *     <li>number of rows (int) and number of columns (int);</li>
+ *     <li>CRC-32 of the bytes of the rows (long, 0 if not present).</li>
+ * </ul>
+ * Then each row is written as ceil(cols / 64) words of 64 bits (long): the column j is the bit j % 64 of the word
+ * j / 64.
+ */
+public class BinaryMatrixWriter {
+
+    public static final String FILE_BINARY_MATRIX_EXTENSION = "bmatrix";
+    public static final int MAGIC = 0x4253484D; // "MHSB" in little-endian
+    public static final int VERSION = 1;
+    public static final int FLAG_HASH = 1;
+    public static final int HEADER_SIZE = 28;
+    // Size of the buffer of bytes written to the file
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Method to write the matrix in a binary file.
+     *
+     * @param matrix the boolean matrix
+     * @param file   the output file (overwritten)
+     * @param hash   true to write the hash of the rows, checked when the file is read
+     * @throws IOException
+     */
+    public void writeMatrixToFile(boolean[][] matrix, File file, boolean hash) throws IOException {
+        final int rows = matrix.length;
+        final int cols = rows > 0 ? matrix[0].length : 0;
+        final int words = (cols + Long.SIZE - 1) / Long.SIZE;
+        final CRC32 crc = new CRC32();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, words * Long.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+
+            // The header is written at the end (the hash is known after the rows)
+            channel.position(HEADER_SIZE);
+
+            for (boolean[] row : matrix) {
+                if (buffer.remaining() < words * Long.BYTES)
+                    flush(channel, buffer, crc);
+
+                for (int w = 0; w < words; w++) {
+                    long word = 0;
+                    for (int j = w * Long.SIZE; j < Math.min(cols, (w + 1) * Long.SIZE); j++) {
+                        if (row[j])
+                            word |= 1L << j;
+                    }
+                    buffer.putLong(word);
+                }
+            }
+            flush(channel, buffer, crc);
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(hash ? FLAG_HASH : 0);
+            buffer.putInt(rows);
+            buffer.putInt(cols);
+            buffer.putLong(hash ? crc.getValue() : 0);
+            buffer.flip();
+            for (long position = 0; buffer.hasRemaining(); ) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    /**
+     * Method to write the buffer to the file and update the hash of the rows.
+     *
+     * @param channel the channel of the file
+     * @param buffer  the buffer with the bytes of the rows
+     * @param crc     the hash of the rows written
+     * @throws IOException
+     */
+    private void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
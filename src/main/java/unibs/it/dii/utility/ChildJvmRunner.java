@@ -0,0 +1,147 @@
+package unibs.it.dii.utility;
+
+import com.opencsv.RFC4180Parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class to execute a benchmark file in a child JVM with its own heap: the output of the child (standard output and
+ * error) is forwarded to the standard output of the supervisor, except the record of the report, sent back through
+ * the same pipe (see {@link PipeReportWriter}). The child is killed if it does not end before the hard deadline.
+ */
+public class ChildJvmRunner {
+
+    private static final String MAIN_CLASS = "unibs.it.dii.mhs.MinimalHittingSetMain";
+    private static final String OUT_OF_MEMORY_ERROR = "java.lang.OutOfMemoryError";
+
+    // Maximum heap of the child JVM in MB (0 = default of the JVM)
+    private final long heap;
+
+    /**
+     * @param heap the maximum heap of each child JVM in MB (0 = default of the JVM)
+     */
+    public ChildJvmRunner(long heap) {
+        this.heap = heap;
+    }
+
+    /**
+     * Method to execute the child JVM and wait for its end (or kill it at the hard deadline).
+     *
+     * @param arguments  the arguments of the child, i.e. of {@value #MAIN_CLASS}
+     * @param deadline   the maximum time in milliseconds before the child is killed
+     * @param linePrefix the prefix of the lines of the child forwarded to the standard output
+     * @return the result of the child
+     * @throws IOException          if the child cannot be started
+     * @throws InterruptedException if the supervisor is interrupted (the child is killed)
+     */
+    public Result run(List<String> arguments, long deadline, String linePrefix) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (heap > 0)
+            command.add("-Xmx" + heap + "m");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(MAIN_CLASS);
+        command.addAll(arguments);
+
+        final Result result = new Result();
+        final long startTime = System.currentTimeMillis();
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        try {
+            // Read the pipe until its end, also when the child is killed
+            final Thread reader = new Thread(() -> readOutput(process, result, linePrefix));
+            reader.setDaemon(true);
+            reader.start();
+
+            if (!process.waitFor(deadline, TimeUnit.MILLISECONDS)) {
+                result.killed = true;
+                process.destroyForcibly();
+                process.waitFor();
+            }
+
+            reader.join();
+        } finally {
+            if (process.isAlive())
+                process.destroyForcibly();
+        }
+
+        result.exitCode = process.exitValue();
+        result.elapsedTime = System.currentTimeMillis() - startTime;
+
+        return result;
+    }
+
+    /**
+     * Method to read the output of the child: the record of the report is stored in the result, the other lines are
+     * forwarded to the standard output.
+     *
+     * @param process    the child JVM
+     * @param result     the result of the child
+     * @param linePrefix the prefix of the lines forwarded
+     */
+    private void readOutput(Process process, Result result, String linePrefix) {
+        final RFC4180Parser parser = new RFC4180Parser();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(PipeReportWriter.RECORD_PREFIX)) {
+                    result.record = parser.parseLine(line.substring(PipeReportWriter.RECORD_PREFIX.length()));
+                } else {
+                    if (line.contains(OUT_OF_MEMORY_ERROR))
+                        result.outOfMemory = true;
+                    System.out.println(linePrefix + line);
+                }
+            }
+        } catch (IOException e) {
+            // The pipe is closed: the child is ended
+        }
+    }
+
+    /**
+     * This class represents the result of a child JVM.
+     */
+    public static class Result {
+        private String[] record;
+        private int exitCode;
+        private boolean killed;
+        private boolean outOfMemory;
+        private long elapsedTime;
+
+        /**
+         * @return the record of the report sent by the child (null if the child crashed or was killed before)
+         */
+        public String[] getRecord() {
+            return record;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * @return true if the child was killed at the hard deadline
+         */
+        public boolean isKilled() {
+            return killed;
+        }
+
+        /**
+         * @return true if the child printed an OutOfMemoryError not handled by MBase
+         */
+        public boolean isOutOfMemory() {
+            return outOfMemory;
+        }
+
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+    }
+}
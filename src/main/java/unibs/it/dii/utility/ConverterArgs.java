@@ -0,0 +1,100 @@
+package unibs.it.dii.utility;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.converters.PathConverter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ConverterArgs {
+    @Parameter(
+            names = {"-h", "--help"},
+            description = "Print this help message and exit",
+            help = true
+    )
+
+    boolean help = false;
+
+    public boolean isHelp() {
+        return help;
+    }
+
+    @Parameter(
+            names = {"-in", "--input-file"},
+            description = "Absolute path of the input file .matrix to convert",
+            converter = PathConverter.class
+    )
+
+    private Path inputPath = Paths.get("");
+
+    public Path getInputPath() {
+        return inputPath;
+    }
+
+    public boolean isManualMode() {
+        return inputPath.toString().length() > 0;
+    }
+
+    @Parameter(
+            names = {"-d", "-dir", "--directory"},
+            description = "Absolute path of the directory that contains the files .matrix to convert",
+            converter = PathConverter.class,
+            validateWith = BenchmarkFilesDirectoryValidator.class
+    )
+
+    private Path directoryPath = Paths.get("");
+
+    public Path getDirectoryPath() {
+        return directoryPath;
+    }
+
+    public boolean isAutomaticMode() {
+        return directoryPath.toString().length() > 0;
+    }
+
+    @Parameter(
+            names = {"-out", "--output-path"},
+            description = "Absolute path of the directory of the files converted (default: the directory of each input file)",
+            converter = PathConverter.class,
+            validateWith = OutputDirectoryValidator.class
+    )
+
+    private Path outputPath = Paths.get("");
+
+    public Path getOutputPath() {
+        return outputPath;
+    }
+
+    @Parameter(
+            names = {"-nh", "--no-hash"},
+            description = "Do not write the hash of the rows (not checked when the file is read)"
+    )
+
+    private boolean noHash = false;
+
+    public boolean isNoHash() {
+        return noHash;
+    }
+
+    @Parameter(
+            names = {"-sp", "--sparse"},
+            description = "Convert into the sparse format .smatrix (columns of the ones of each row) instead of the binary format .bmatrix"
+    )
+
+    private boolean sparse = false;
+
+    public boolean isSparse() {
+        return sparse;
+    }
+
+    @Parameter(
+            names = {"-dn", "--dense-output"},
+            description = "Convert the output files .out (or .out.gz) with the MHS in any encoding into output files -dense.out with the dense encoding"
+    )
+
+    private boolean denseOutput = false;
+
+    public boolean isDenseOutput() {
+        return denseOutput;
+    }
+}
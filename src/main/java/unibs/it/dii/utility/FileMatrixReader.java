@@ -1,27 +1,39 @@
 package unibs.it.dii.utility;
 
 import unibs.it.dii.mhs.model.Matrix;
+import unibs.it.dii.mhs.model.SparseMatrix;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.NoSuchFileException;
-import java.util.stream.Stream;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32;
 
 import org.apache.commons.io.FilenameUtils;
 
 /**
- * Class to read the matrix within a benchmark file.
+ * Class to read the matrix within a benchmark file. A text file (.matrix) is read as a stream of bytes: each '0'/'1'
+ * token is decoded directly into the row of the matrix, so no String is created for the lines or the cells. A binary
+ * file (.bmatrix, see {@link BinaryMatrixWriter}) is memory-mapped and its words are unpacked into the rows. A sparse
+ * file (.smatrix, see {@link SparseMatrixWriter}) is decoded into a {@link SparseMatrix} without building the dense one.
  */
 public class FileMatrixReader {
 
     private static final String FILE_MATRIX_EXTENSION = "matrix";
     public static final String MSG_NO_SUCH_FILE_EXCEPTION = "Enter a correct absolute path for the input file matrix";
-    private final static String MSG_WRONG_FILE_EXTENSION = "The input file extension is not correct. Please choose .matrix file";
+    private final static String MSG_WRONG_FILE_EXTENSION = "The input file extension is not correct. Please choose .matrix, .bmatrix or .smatrix file";
+    // Size of the buffer of bytes read from the file
+    private static final int BUFFER_SIZE = 1 << 16;
 
     /**
      * Method to read the matrix within a file
-     * @param file the file with .matrix extension
+     * @param file the file with .matrix (or .bmatrix, .smatrix) extension
      * @return the matrix read
      * @throws IOException
      */
@@ -29,20 +41,21 @@ public class FileMatrixReader {
         final Matrix matrix = new Matrix();
         matrix.setName(FilenameUtils.removeExtension(file.getName()));
 
-        try (Stream<String> stream = Files.lines(file.toPath())) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
 
-            if (!FilenameUtils.getExtension(file.getName()).equals(FILE_MATRIX_EXTENSION)) {
+            final String extension = FilenameUtils.getExtension(file.getName());
+
+            if (extension.equals(BinaryMatrixWriter.FILE_BINARY_MATRIX_EXTENSION)) {
+                matrix.setBoolMatrix(readBinaryRows(channel));
+            } else if (extension.equals(SparseMatrixWriter.FILE_SPARSE_MATRIX_EXTENSION)) {
+                matrix.setSparseMatrix(readSparseRows(channel));
+            } else if (extension.equals(FILE_MATRIX_EXTENSION)) {
+                matrix.setBoolMatrix(readRows(channel));
+            } else {
                 System.err.println(MSG_WRONG_FILE_EXTENSION);
                 System.exit(100);
             }
 
-            final boolean[][] boolMatrix = stream
-                    .filter(line -> !line.startsWith(";")) // remove comments
-                    .map(this::readRow) // read each row of the matrix
-                    .toArray(boolean[][]::new);
-
-            matrix.setBoolMatrix(boolMatrix);
-
         } catch (NoSuchFileException fe) {
             System.err.println(MSG_NO_SUCH_FILE_EXCEPTION);
             System.exit(200);
@@ -51,15 +64,289 @@ public class FileMatrixReader {
         return matrix;
     }
 
-    private boolean[] readRow(String s) {
-        final String[] rowString = s.split(" ");
-        boolean[] row = new boolean[rowString.length - 1]; // exclude '-' (i.e. end of the row)
-        int count = 0;
+    /**
+     * Method to decode the rows of the matrix: the lines starting with ';' are comments, the tokens of a row are
+     * separated by spaces and the row ends with '-' (the rest of the line is ignored) or with the end of the line.
+     *
+     * @param channel the channel of the file
+     * @return the rows of the matrix
+     * @throws IOException if a token is neither '0', '1' nor '-'
+     */
+    private boolean[][] readRows(FileChannel channel) throws IOException {
+        final ArrayList<boolean[]> rows = new ArrayList<>();
+        // Cells of the current row (the width of the matrix is known after the first row)
+        boolean[] row = new boolean[64];
+        int cols = 0;
+        long line = 1;
+        boolean lineStart = true;
+        boolean skipLine = false; // Comment or row already ended
+        boolean tokenEnd = true; // The previous byte is a separator
+
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        final byte[] bytes = buffer.array();
+
+        while (channel.read(buffer) != -1) {
+            final int limit = buffer.position();
+
+            for (int p = 0; p < limit; p++) {
+                final byte b = bytes[p];
+
+                if (b == '\n') {
+                    if (!skipLine && cols > 0) // Row without the final '-'
+                        rows.add(Arrays.copyOf(row, cols));
+
+                    cols = 0;
+                    line++;
+                    lineStart = true;
+                    skipLine = false;
+                    tokenEnd = true;
+                    continue;
+                }
+
+                if (skipLine)
+                    continue;
+
+                if (lineStart && b == ';') { // Comment
+                    skipLine = true;
+                    continue;
+                }
+                lineStart = false;
+
+                if (b == ' ' || b == '\t' || b == '\r') {
+                    tokenEnd = true;
+                } else if ((b == '0' || b == '1') && tokenEnd) {
+                    if (cols == row.length)
+                        row = Arrays.copyOf(row, 2 * cols);
+                    row[cols++] = b == '1';
+                    tokenEnd = false;
+                } else if (b == '-' && tokenEnd) { // End of the row
+                    rows.add(Arrays.copyOf(row, cols));
+                    skipLine = true;
+                } else {
+                    throw new IOException("Invalid token at line " + line + ": only '0', '1' and '-' are allowed");
+                }
+            }
+            buffer.clear();
+        }
+
+        if (!skipLine && cols > 0) // Last row without the final '-' and the new line
+            rows.add(Arrays.copyOf(row, cols));
+
+        return rows.toArray(new boolean[0][]);
+    }
+
+    /**
+     * Method to decode the rows of a sparse matrix: the lines starting with ';' are comments, the first line is the
+     * number of rows and columns, then each line is a row with the indices of its columns (from 0) separated by spaces
+     * and followed by '-' (a row with only '-' is empty).
+     *
+     * @param channel the channel of the file
+     * @return the sparse matrix
+     * @throws IOException if the file is not a valid sparse matrix
+     */
+    private SparseMatrix readSparseRows(FileChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        final byte[] bytes = buffer.array();
+        final SparseParser parser = new SparseParser();
+
+        while (channel.read(buffer) != -1) {
+            final int limit = buffer.position();
+
+            for (int p = 0; p < limit; p++) {
+                parser.accept(bytes[p]);
+            }
+            buffer.clear();
+        }
+
+        return parser.getMatrix();
+    }
+
+    /**
+     * Method to decode the rows of a binary matrix: the rows are memory-mapped (in regions of at most 2 GB) and the
+     * hash is checked, if present, before decoding them; the padding bits of the last word of each row must be 0.
+     *
+     * @param channel the channel of the file
+     * @return the rows of the matrix
+     * @throws IOException if the header is not valid, the hash does not match or some padding bits are set
+     */
+    private boolean[][] readBinaryRows(FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(BinaryMatrixWriter.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) == -1)
+                break;
+        }
+        header.flip();
+
+        if (header.limit() < BinaryMatrixWriter.HEADER_SIZE || header.getInt() != BinaryMatrixWriter.MAGIC)
+            throw new IOException("Not a binary matrix file");
+        if (header.getInt() != BinaryMatrixWriter.VERSION)
+            throw new IOException("Version of the binary matrix file not supported");
+
+        final int flags = header.getInt();
+        final int rows = header.getInt();
+        final int cols = header.getInt();
+        final long hash = header.getLong();
+        final int words = (cols + Long.SIZE - 1) / Long.SIZE;
+        final long rowBytes = (long) words * Long.BYTES;
+
+        if (rows < 0 || cols < 0 || channel.size() != BinaryMatrixWriter.HEADER_SIZE + rows * rowBytes)
+            throw new IOException("Size of the binary matrix file not valid");
+
+        // Rows of each mapped region
+        final int regionRows = rowBytes > 0 ? (int) Math.max(1, Integer.MAX_VALUE / rowBytes) : rows;
+
+        if ((flags & BinaryMatrixWriter.FLAG_HASH) != 0) {
+            final CRC32 crc = new CRC32();
+            for (int from = 0; from < rows; from += regionRows) {
+                crc.update(mapRows(channel, from, (int) Math.min(rows, (long) from + regionRows), rowBytes));
+            }
+
+            if (crc.getValue() != hash)
+                throw new IOException("Hash of the binary matrix file not valid: the file is corrupted");
+        }
+
+        final boolean[][] matrix = new boolean[rows][cols];
+        // Valid bits of the last word of each row (the columns after the last one are padding)
+        final long lastWordMask = cols % Long.SIZE == 0 ? -1L : (1L << (cols % Long.SIZE)) - 1;
+
+        for (int from = 0; from < rows; from += regionRows) {
+            final int to = (int) Math.min(rows, (long) from + regionRows);
+            final MappedByteBuffer region = mapRows(channel, from, to, rowBytes);
+
+            for (int i = from; i < to; i++) {
+                final boolean[] row = matrix[i];
+                for (int w = 0; w < words; w++) {
+                    long word = region.getLong();
+                    if (w == words - 1 && (word & ~lastWordMask) != 0)
+                        throw new IOException("Row " + i + " of the binary matrix file not valid: padding bits set after the last column");
+
+                    while (word != 0) {
+                        row[w * Long.SIZE + Long.numberOfTrailingZeros(word)] = true;
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+
+        return matrix;
+    }
+
+    /**
+     * Method to memory-map the rows of a binary matrix file.
+     *
+     * @param channel  the channel of the file
+     * @param from     the first row (included)
+     * @param to       the last row (excluded)
+     * @param rowBytes the number of bytes of each row
+     * @return the rows mapped, in little-endian order
+     * @throws IOException
+     */
+    private MappedByteBuffer mapRows(FileChannel channel, int from, int to, long rowBytes) throws IOException {
+        final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, BinaryMatrixWriter.HEADER_SIZE + from * rowBytes, (to - from) * rowBytes);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+
+        return region;
+    }
+
+    /**
+     * This class decodes the bytes of a sparse matrix file (see {@link #readSparseRows}) into the arrays of the rows.
+     */
+    private static class SparseParser {
+        // Number of rows and columns of the header (-1 until read)
+        private int declaredRows = -1;
+        private int cols = -1;
+        private int[] rowStart = new int[]{0, 0};
+        private int[] rowCols = new int[64];
+        private int rows = 0;
+        private int nonZeros = 0;
+        // Value of the number read (-1 if no number)
+        private long value = -1;
+        private long line = 1;
+        private boolean lineStart = true;
+        private boolean skipLine = false; // Comment or row already ended
+
+        private void accept(byte b) throws IOException {
+            if (b == '\n') {
+                endNumber();
+                if (nonZeros > rowStart[rows]) // Columns without the final '-'
+                    throw new IOException("Missing '-' at the end of line " + line);
+                if (declaredRows >= 0 && cols < 0)
+                    throw new IOException("Invalid size of the sparse matrix (rows cols) at line " + line);
+
+                line++;
+                lineStart = true;
+                skipLine = false;
+                return;
+            }
+
+            if (skipLine)
+                return;
+
+            if (lineStart && b == ';') { // Comment
+                skipLine = true;
+                return;
+            }
+            lineStart = false;
 
-        for (int j = 0; j < row.length; j++) {
-            row[count++] = Integer.parseInt(rowString[j]) == 1;
+            if (b >= '0' && b <= '9') {
+                value = (value < 0 ? 0 : 10 * value) + (b - '0');
+                if (value > Integer.MAX_VALUE)
+                    throw new IOException("Number too large at line " + line);
+            } else if (b == ' ' || b == '\t' || b == '\r') {
+                endNumber();
+            } else if (b == '-' && cols >= 0) { // End of the row
+                endNumber();
+                endRow();
+                skipLine = true;
+            } else {
+                throw new IOException("Invalid token at line " + line + ": only numbers and '-' are allowed");
+            }
         }
 
-        return row;
+        private void endNumber() throws IOException {
+            if (value < 0)
+                return;
+
+            if (declaredRows < 0) {
+                declaredRows = (int) value;
+            } else if (cols < 0) {
+                cols = (int) value;
+            } else {
+                if (value >= cols)
+                    throw new IOException("Column " + value + " out of range at line " + line);
+                if (nonZeros == rowCols.length)
+                    rowCols = Arrays.copyOf(rowCols, 2 * nonZeros);
+                rowCols[nonZeros++] = (int) value;
+            }
+
+            value = -1;
+        }
+
+        private void endRow() {
+            // Sort the columns of the row and remove the duplicates
+            final int start = rowStart[rows];
+            Arrays.sort(rowCols, start, nonZeros);
+            int end = start;
+            for (int q = start; q < nonZeros; q++) {
+                if (q == start || rowCols[q] != rowCols[q - 1])
+                    rowCols[end++] = rowCols[q];
+            }
+            nonZeros = end;
+
+            if (++rows + 1 > rowStart.length)
+                rowStart = Arrays.copyOf(rowStart, 2 * rowStart.length);
+            rowStart[rows] = nonZeros;
+        }
+
+        private SparseMatrix getMatrix() throws IOException {
+            accept((byte) '\n'); // The last line can end without a new line
+
+            if (cols < 0)
+                throw new IOException("Missing size of the sparse matrix (rows cols)");
+            if (rows != declaredRows)
+                throw new IOException("Number of rows not valid: " + rows + " read, " + declaredRows + " declared");
+
+            return new SparseMatrix(rows, cols, Arrays.copyOf(rowStart, rows + 1), Arrays.copyOf(rowCols, nonZeros));
+        }
     }
 }
@@ -0,0 +1,95 @@
+package unibs.it.dii.utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class to write on a stream (e.g. the standard output) the lines printed by concurrent threads: each thread keeps its
+ * line until the new line, then the line is written at once with the prefix of the thread (e.g. the name of the file
+ * processed), so the lines of different threads do not interleave. The prefix is inherited by the threads started by
+ * the thread (e.g. the workers of MBase); the threads without prefix write on the stream directly.
+ */
+public class LinePrefixOutputStream extends OutputStream {
+
+    // Stream where the lines are written
+    private final OutputStream outputStream;
+    private final InheritableThreadLocal<byte[]> prefix = new InheritableThreadLocal<>();
+    // Line of each thread not written yet
+    private final ThreadLocal<ByteArrayOutputStream> line = ThreadLocal.withInitial(ByteArrayOutputStream::new);
+
+    /**
+     * @param outputStream the stream where the lines are written
+     */
+    public LinePrefixOutputStream(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * Method to set the prefix of the lines of the current thread (and of the threads it starts).
+     *
+     * @param prefix the prefix, null to write the lines without prefix
+     * @throws IOException
+     */
+    public void setPrefix(String prefix) throws IOException {
+        writeLine(); // The line started with the previous prefix
+        this.prefix.set(prefix != null ? prefix.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (prefix.get() == null) {
+            synchronized (outputStream) {
+                outputStream.write(b);
+            }
+            return;
+        }
+
+        line.get().write(b);
+        if (b == '\n')
+            writeLine();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (prefix.get() == null) {
+            synchronized (outputStream) {
+                outputStream.write(b, off, len);
+            }
+            return;
+        }
+
+        for (int p = off; p < off + len; p++) {
+            write(b[p]);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        synchronized (outputStream) {
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Method to write the line of the current thread with its prefix.
+     *
+     * @throws IOException
+     */
+    private void writeLine() throws IOException {
+        final ByteArrayOutputStream buffer = line.get();
+        final byte[] bytes = prefix.get();
+
+        if (buffer.size() == 0)
+            return;
+
+        synchronized (outputStream) {
+            if (bytes != null)
+                outputStream.write(bytes);
+            buffer.writeTo(outputStream);
+            outputStream.flush();
+        }
+        buffer.reset();
+    }
+}
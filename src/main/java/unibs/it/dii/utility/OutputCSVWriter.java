@@ -1,36 +1,203 @@
 package unibs.it.dii.utility;
 
-import com.opencsv.CSVReader;
 import com.opencsv.CSVWriter;
 
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class OutputCSVWriter {
+/**
+ * Class to write the records of the report (one for each input matrix) on the CSV file and, optionally, as JSON lines
+ * (one JSON object for each record, with the columns of the header as keys). The files stay open for all the
+ * execution: the records are kept in memory and written in batches, when the number of records reaches its threshold,
+ * periodically (so no record waits on disk more than the flush interval), when the writer is closed and when the JVM
+ * shuts down.
+ */
+public class OutputCSVWriter implements ReportWriter, Closeable {
 
-    private CSVWriter writer;
-    private CSVReader reader;
+    public static final String JSON_LINES_EXTENSION = ".jsonl";
 
-    public CSVReader getReader() {
-        return reader;
+    private final String[] header;
+    // Columns always written as JSON strings (e.g. names that look like numbers)
+    private final Set<String> textColumns;
+    private final int flushRecords;
+    private final CSVWriter csvWriter;
+    private final Writer jsonWriter;
+    // Records not written yet
+    private final List<String[]> pending = new ArrayList<>();
+    private final Thread shutdownHook;
+    // Daemon thread to write the records kept in memory every flushMillis
+    private final ScheduledExecutorService flusher;
+    private boolean closed;
+
+    /**
+     * @param csvPath      the CSV file (the records are appended, the header is written if the file is empty)
+     * @param header       the names of the columns
+     * @param textColumns  the names of the columns written as JSON strings (the other ones are written as numbers or
+     *                     booleans, if possible)
+     * @param jsonPath     the JSON lines file (the records are appended), null to write only the CSV file
+     * @param flushRecords the maximum number of records kept in memory
+     * @param flushMillis  the interval in milliseconds of the periodic write of the records
+     * @throws IOException
+     */
+    public OutputCSVWriter(Path csvPath, String[] header, Set<String> textColumns, Path jsonPath, int flushRecords, long flushMillis) throws IOException {
+        this.header = header;
+        this.textColumns = textColumns;
+        this.flushRecords = flushRecords;
+
+        final boolean empty = !Files.exists(csvPath) || Files.size(csvPath) == 0;
+        this.csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(csvPath.toFile(), true), StandardCharsets.UTF_8)));
+        this.jsonWriter = jsonPath != null
+                ? new BufferedWriter(new OutputStreamWriter(new FileOutputStream(jsonPath.toFile(), true), StandardCharsets.UTF_8))
+                : null;
+
+        if (empty) {
+            // Create the header of csv
+            csvWriter.writeNext(header);
+            csvWriter.flush();
+        }
+
+        // Write the records kept in memory also if the execution is interrupted (e.g. CTRL+C)
+        this.shutdownHook = new Thread(() -> {
+            try {
+                flush();
+            } catch (IOException e) {
+                System.err.println("Impossible to write the report records: " + e.getMessage());
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        // Write the records kept in memory also during a long instance and after the last record
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "report-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (IOException e) {
+                System.err.println("Impossible to write the report records: " + e.getMessage());
+            }
+        }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
     }
 
-    public void setReader(CSVReader reader) {
-        this.reader = reader;
+    /**
+     * Method to add a record of the report: the records are written when their number reaches the threshold (or by
+     * the periodic write).
+     *
+     * @param record the values of the columns
+     * @throws IOException
+     */
+    @Override
+    public synchronized void writeRecord(String[] record) throws IOException {
+        pending.add(record);
+
+        if (pending.size() >= flushRecords)
+            flush();
     }
 
-    public CSVWriter getWriter() {
-        return writer;
+    /**
+     * Method to write the records kept in memory.
+     *
+     * @throws IOException
+     */
+    public synchronized void flush() throws IOException {
+        if (closed || pending.isEmpty())
+            return;
+
+        for (String[] record : pending) {
+            csvWriter.writeNext(record);
+            if (jsonWriter != null) {
+                jsonWriter.write(toJson(record));
+                jsonWriter.write('\n');
+            }
+        }
+        pending.clear();
+
+        csvWriter.flush();
+        if (jsonWriter != null)
+            jsonWriter.flush();
     }
 
-    public void setWriter(CSVWriter writer) {
-        this.writer = writer;
+    /**
+     * Method to build the JSON object of the record: the numbers and the booleans are written without quotes, except
+     * in the text columns.
+     *
+     * @param record the values of the columns
+     * @return the JSON object on a single line
+     */
+    private String toJson(String[] record) {
+        final StringBuilder sb = new StringBuilder("{");
+
+        for (int k = 0; k < record.length; k++) {
+            final String name = k < header.length ? header[k] : String.valueOf(k);
+            if (k > 0)
+                sb.append(',');
+            appendJsonString(sb, name);
+            sb.append(':');
+
+            final String value = record[k];
+            if (value == null)
+                sb.append("null");
+            else if (textColumns.contains(name))
+                appendJsonString(sb, value);
+            else if (value.equals("true") || value.equals("false") || value.matches("-?\\d+(\\.\\d+)?"))
+                sb.append(value);
+            else
+                appendJsonString(sb, value);
+        }
+
+        return sb.append('}').toString();
     }
 
-    public void writeCSV(String[] s) throws IOException {
-        // Write the header of CSV
-        writer.writeNext(s);
+    /**
+     * Method to append the string with the quotes and the escape of the special characters.
+     *
+     * @param sb    the StringBuilder of the JSON object
+     * @param value the string
+     */
+    private void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int p = 0; p < value.length(); p++) {
+            final char c = value.charAt(p);
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < ' ')
+                sb.append(String.format("\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+
+        flusher.shutdownNow();
+
+        try {
+            flush();
+        } finally {
+            closed = true;
+            csvWriter.close();
+            if (jsonWriter != null)
+                jsonWriter.close();
 
-        // Close the writer
-        writer.close();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down
+            }
+        }
     }
 }
@@ -0,0 +1,41 @@
+package unibs.it.dii.utility;
+
+/**
+ * Encodings of the MHS in the output matrix of the output file (see {@link OutputMatrixWriter} and
+ * {@link OutputMatrixReader}):
+ * <ul>
+ *     <li>DENSE: each MHS is a row with a '0'/'1' token for each column of the input matrix, followed by '-';</li>
+ *     <li>INDICES: each MHS is a row with its sorted columns of the input matrix (from 0), followed by '-';</li>
+ *     <li>VARINT: binary block where each MHS is the number of its columns + 1 followed by the first column and the
+ *     differences between consecutive columns, all as unsigned LEB128 varints; the block ends with 0 and a new line.</li>
+ * </ul>
+ */
+public enum OutputEncoding {
+    DENSE("Output Matrix:"),
+    INDICES("Output Matrix (indices):"),
+    VARINT("Output Matrix (varint):");
+
+    // Line before the MHS in the output file
+    private final String header;
+
+    OutputEncoding(String header) {
+        this.header = header;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * @param line a line of the output file
+     * @return the encoding of the output matrix that starts after the line, null if the line is not a header
+     */
+    public static OutputEncoding fromHeader(String line) {
+        for (OutputEncoding encoding : values()) {
+            if (encoding.header.equals(line))
+                return encoding;
+        }
+
+        return null;
+    }
+}
@@ -1,44 +1,77 @@
 package unibs.it.dii.utility;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.zip.GZIPOutputStream;
 
-public class OutputFileWriter {
+/**
+ * Class to write the output file (.out) of each input matrix: the file is written through a single buffered stream,
+ * open from {@link #createOutputFile} to {@link #closeOutputFile()}, shared by the report information and by the rows
+ * of the output matrix (see {@link OutputMatrixWriter}). The stream can be compressed with gzip (.out.gz).
+ */
+public class OutputFileWriter implements Closeable {
 
     public static final String OUTPUT_WITH_PRE_ELABORATION = "-with-pre-elaboration";
+    public static final String OUTPUT_FILE_EXTENSION = ".out";
+    public static final String GZIP_FILE_EXTENSION = ".gz";
+    // Size of the buffer of bytes written to the file
+    private static final int BUFFER_SIZE = 1 << 16;
 
+    private final boolean gzip;
     private File outputFile;
+    private OutputStream outputStream;
 
-    public OutputFileWriter(Path outputPath) throws IOException {
+    /**
+     * @param outputPath the directory of the output files (created if it does not exist)
+     * @param gzip       true to compress the output files with gzip
+     * @throws IOException
+     */
+    public OutputFileWriter(Path outputPath, boolean gzip) throws IOException {
         if (!outputPath.toFile().exists())
             Files.createDirectories(outputPath);
+
+        this.gzip = gzip;
     }
 
     public File getOutputFile() {
         return outputFile;
     }
 
-    public void setFile(File outputFile) {
-        this.outputFile = outputFile;
+    /**
+     * @return the stream of the output file (buffered, compressed if selected)
+     */
+    public OutputStream getOutputStream() {
+        return outputStream;
     }
 
+    /**
+     * Method to create the output file (overwritten if it already exists) and open its stream. The stream of the
+     * previous output file is closed.
+     *
+     * @param preProcessing true if the matrix is pre-processed
+     * @param fileName      the path of the output file without extension
+     * @return the output file
+     * @throws IOException
+     */
     public File createOutputFile(boolean preProcessing, String fileName) throws IOException {
+        closeOutputFile();
+
         final StringBuilder fullName = new StringBuilder(fileName);
 
         if (preProcessing)
             fullName.append(OUTPUT_WITH_PRE_ELABORATION);
 
-        fullName.append(".out");
+        fullName.append(OUTPUT_FILE_EXTENSION);
+
+        if (gzip)
+            fullName.append(GZIP_FILE_EXTENSION);
 
         outputFile = new File(fullName.toString());
 
-        if (!outputFile.createNewFile()) // File already exists
-            new FileOutputStream(outputFile).close(); // Comment these two line if you want to append more report information for the same input matrix
+        final OutputStream fileStream = new FileOutputStream(outputFile); // Comment this line and use the append mode if you want to append more report information for the same input matrix
+        outputStream = new BufferedOutputStream(gzip ? new GZIPOutputStream(fileStream, BUFFER_SIZE) : fileStream, BUFFER_SIZE);
 
         return outputFile;
     }
@@ -50,40 +83,27 @@ public class OutputFileWriter {
      * @throws IOException
      */
     public void writeOutputFile(StringBuilder sb) throws IOException {
-        final FileWriter fw = new FileWriter(outputFile.getAbsoluteFile(), true);
-        // Start write report information
-        fw.append(sb.toString());
-        // Close connection
-        fw.close();
+        outputStream.write(sb.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Write the output matrix with the correct number of columns on the output file.
+     * Method to flush and close the stream of the output file (nothing if already closed).
      *
-     * @param matrix      the matrix to write with relative indexing
-     * @param colsRemoved the list of columns removed
-     * @param initialCols the number of initial input matrix columns
      * @throws IOException
      */
-    public void writeOutputMatrix(boolean[][] matrix, ArrayList<Integer> colsRemoved, int initialCols) throws IOException {
-        final FileWriter fw = new FileWriter(outputFile.getAbsoluteFile(), true);
-        StringBuilder sb = new StringBuilder();
-
-        for (int i = 0; i < matrix.length; i++) {
-            sb.setLength(0); // Reset the StringBuilder
-            for (int j = 0, count = 0; j < initialCols; j++) {
-                if (colsRemoved.contains(j)) {
-                    sb.append("0 ");
-                    continue;
-                }
-                sb.append(matrix[i][count++] ? "1 " : "0 "); // Output matrix has less column if pre-processed
-            }
-            sb.append("-\n"); // End of the row
-            // Write the row of the matrix
-            fw.append(sb.toString());
+    public void closeOutputFile() throws IOException {
+        if (outputStream == null)
+            return;
+
+        try {
+            outputStream.close();
+        } finally {
+            outputStream = null;
         }
+    }
 
-        // Close connection
-        fw.close();
+    @Override
+    public void close() throws IOException {
+        closeOutputFile();
     }
 }
@@ -0,0 +1,283 @@
+package unibs.it.dii.utility;
+
+import unibs.it.dii.mhs.model.ColumnMapping;
+import unibs.it.dii.mhs.model.MinimalHittingSetSink;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Class to read the output matrix of an output file (.out or .out.gz) written with any {@link OutputEncoding} and to
+ * convert it back to the dense encoding, so the output files can still be processed by the tools of the dense rows.
+ * The number of columns of the output matrix is the size of the input matrix written in the report ("Size: RxC").
+ */
+public class OutputMatrixReader {
+
+    private static final String SIZE_PREFIX = "Size: ";
+    // Size of the buffer of bytes read from or written to the file
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Method to read the output matrix of an output file.
+     *
+     * @param file the output file (.out or .out.gz)
+     * @return the rows of the output matrix (one for each MHS) in the dense form
+     * @throws IOException if the output matrix is not valid
+     */
+    public boolean[][] readOutputMatrix(File file) throws IOException {
+        final ArrayList<boolean[]> rows = new ArrayList<>();
+
+        try (InputStream inputStream = open(file)) {
+            read(inputStream, null, cols -> (elements, size) -> {
+                final boolean[] row = new boolean[cols];
+                for (int k = 0; k < size; k++) {
+                    row[elements[k]] = true;
+                }
+                rows.add(row);
+            });
+        }
+
+        return rows.toArray(new boolean[0][]);
+    }
+
+    /**
+     * Method to convert an output file into an output file with the dense encoding: the report is copied and the MHS
+     * are written as dense rows, one at a time.
+     *
+     * @param inputFile  the output file (.out or .out.gz)
+     * @param outputFile the output file with the dense encoding (overwritten)
+     * @throws IOException if the output matrix is not valid
+     */
+    public void writeDenseOutputFile(File inputFile, File outputFile) throws IOException {
+        try (InputStream inputStream = open(inputFile);
+             OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(outputFile), BUFFER_SIZE)) {
+            read(inputStream, outputStream, cols -> new OutputMatrixWriter(outputStream, new ColumnMapping(cols), OutputEncoding.DENSE, 0));
+        }
+    }
+
+    /**
+     * Method to open the output file, decompressed if its extension is .gz.
+     *
+     * @param file the output file
+     * @return the stream of the output file
+     * @throws IOException
+     */
+    private InputStream open(File file) throws IOException {
+        final InputStream fileStream = new FileInputStream(file);
+
+        if (file.getName().endsWith(OutputFileWriter.GZIP_FILE_EXTENSION))
+            return new BufferedInputStream(new GZIPInputStream(fileStream, BUFFER_SIZE), BUFFER_SIZE);
+
+        return new BufferedInputStream(fileStream, BUFFER_SIZE);
+    }
+
+    /**
+     * Method to read the output file: the lines of the report are copied (if requested) and each MHS of the output
+     * matrix is handed over to the sink, as the sorted columns of the input matrix.
+     *
+     * @param inputStream  the stream of the output file
+     * @param report       the stream to copy the report to (null if not requested)
+     * @param sinkFactory  the factory of the sink of the MHS, given the number of columns of the input matrix
+     * @throws IOException if the output matrix is not valid
+     */
+    private void read(InputStream inputStream, OutputStream report, IntFunction<MinimalHittingSetSink> sinkFactory) throws IOException {
+        int cols = -1;
+        String line = readLine(inputStream);
+
+        while (line != null) {
+            final OutputEncoding encoding = OutputEncoding.fromHeader(line);
+
+            if (encoding == null) {
+                if (cols < 0 && line.startsWith(SIZE_PREFIX))
+                    cols = parseCols(line);
+
+                writeLine(report, line);
+                line = readLine(inputStream);
+                continue;
+            }
+
+            if (cols < 0)
+                throw new IOException("Missing size of the input matrix before the output matrix");
+
+            writeLine(report, OutputEncoding.DENSE.getHeader());
+
+            final MinimalHittingSetSink sink = sinkFactory.apply(cols);
+            final int[] elements = new int[cols];
+
+            if (encoding == OutputEncoding.VARINT) {
+                readVarints(inputStream, sink, elements);
+                line = readLine(inputStream);
+            } else {
+                line = readRows(inputStream, encoding, sink, elements);
+            }
+
+            if (sink instanceof Closeable)
+                ((Closeable) sink).close();
+        }
+    }
+
+    /**
+     * Method to read the rows of a text output matrix (dense or indices encoding).
+     *
+     * @param inputStream the stream of the output file
+     * @param encoding    the encoding of the rows
+     * @param sink        the sink of the MHS
+     * @param elements    the buffer of the columns of each MHS
+     * @return the first line after the output matrix (null if the file ends)
+     * @throws IOException if a row is not valid
+     */
+    private String readRows(InputStream inputStream, OutputEncoding encoding, MinimalHittingSetSink sink, int[] elements) throws IOException {
+        String line;
+
+        while ((line = readLine(inputStream)) != null && isRow(line)) {
+            final String columns = line.substring(0, line.length() - 1).trim();
+            final String[] tokens = columns.isEmpty() ? new String[0] : columns.split(" +");
+            int size = 0;
+
+            if (encoding == OutputEncoding.DENSE) {
+                if (tokens.length != elements.length)
+                    throw new IOException("Row of the output matrix with " + tokens.length + " columns instead of " + elements.length);
+
+                for (int j = 0; j < tokens.length; j++) {
+                    if (tokens[j].equals("1"))
+                        elements[size++] = j;
+                    else if (!tokens[j].equals("0"))
+                        throw new IOException("Invalid token of the output matrix: " + tokens[j]);
+                }
+            } else {
+                for (String token : tokens) {
+                    final int col = Integer.parseInt(token);
+                    if (col >= elements.length || (size > 0 && col <= elements[size - 1]))
+                        throw new IOException("Column of the output matrix out of range or not sorted: " + col);
+                    elements[size++] = col;
+                }
+            }
+
+            sink.accept(elements, size);
+        }
+
+        return line;
+    }
+
+    /**
+     * Method to read the binary block of a varint output matrix, until the final 0 and new line.
+     *
+     * @param inputStream the stream of the output file
+     * @param sink        the sink of the MHS
+     * @param elements    the buffer of the columns of each MHS
+     * @throws IOException if the block is not valid
+     */
+    private void readVarints(InputStream inputStream, MinimalHittingSetSink sink, int[] elements) throws IOException {
+        int count;
+
+        while ((count = readVarint(inputStream)) != 0) {
+            final int size = count - 1;
+            if (size > elements.length)
+                throw new IOException("MHS of the output matrix with " + size + " columns, more than " + elements.length);
+
+            for (int k = 0; k < size; k++) {
+                final long col = k == 0 ? readVarint(inputStream) : (long) elements[k - 1] + readVarint(inputStream);
+                if (col >= elements.length || (k > 0 && col == elements[k - 1]))
+                    throw new IOException("Column of the output matrix out of range or not sorted: " + col);
+                elements[k] = (int) col;
+            }
+
+            sink.accept(elements, size);
+        }
+
+        if (inputStream.read() != '\n')
+            throw new IOException("Missing new line at the end of the output matrix");
+    }
+
+    /**
+     * Method to read an unsigned LEB128 varint.
+     *
+     * @param inputStream the stream of the output file
+     * @return the value read
+     * @throws IOException if the file ends or the value is too large
+     */
+    private int readVarint(InputStream inputStream) throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            final int b = inputStream.read();
+            if (b < 0)
+                throw new IOException("Unexpected end of the output matrix");
+
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+
+        throw new IOException("Varint of the output matrix too large");
+    }
+
+    /**
+     * @param line a line of the output file
+     * @return true if the line is a row of a text output matrix, i.e. numbers followed by '-'
+     */
+    private boolean isRow(String line) {
+        if (!line.endsWith("-"))
+            return false;
+
+        for (int p = 0; p < line.length() - 1; p++) {
+            final char c = line.charAt(p);
+            if (c != ' ' && (c < '0' || c > '9'))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @param line the line with the size of the input matrix, e.g. "Size: 7x65"
+     * @return the number of columns
+     * @throws IOException if the size is not valid
+     */
+    private int parseCols(String line) throws IOException {
+        try {
+            return Integer.parseInt(line.substring(line.indexOf('x') + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid size of the input matrix: " + line);
+        }
+    }
+
+    /**
+     * Method to read a line of the output file (without the new line).
+     *
+     * @param inputStream the stream of the output file
+     * @return the line, null if the file ends
+     * @throws IOException
+     */
+    private String readLine(InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+
+        while ((b = inputStream.read()) != -1 && b != '\n') {
+            line.write(b);
+        }
+
+        if (b == -1 && line.size() == 0)
+            return null;
+
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to write a line of the report.
+     *
+     * @param report the stream of the report (nothing if null)
+     * @param line   the line without the new line
+     * @throws IOException
+     */
+    private void writeLine(OutputStream report, String line) throws IOException {
+        if (report == null)
+            return;
+
+        report.write(line.getBytes(StandardCharsets.UTF_8));
+        report.write('\n');
+    }
+}
@@ -0,0 +1,249 @@
+package unibs.it.dii.utility;
+
+import unibs.it.dii.mhs.model.ColumnMapping;
+import unibs.it.dii.mhs.model.MinimalHittingSetSink;
+
+import java.io.*;
+
+/**
+ * Class to write the MHS on the output file as soon as they are found, in the selected {@link OutputEncoding}: with the
+ * dense encoding each MHS is a row of the output matrix with the number of columns of the initial input matrix,
+ * otherwise only the columns of the MHS are written (as text or as varints). The rows are encoded into bytes, so they
+ * are written to the stream of the output file without creating a String or encoding characters.
+ */
+public class OutputMatrixWriter implements MinimalHittingSetSink, Closeable {
+
+    // Maximum number of bytes of a column as text (with the separator) or as varint
+    private static final int MAX_COLUMN_BYTES = 11;
+
+    // Stream of the output file (owned by the OutputFileWriter)
+    private final OutputStream outputStream;
+    // Mapping from the columns of the MHS (relative indexing) to the columns of the output matrix (absolute indexing)
+    private final ColumnMapping columnMapping;
+    private final OutputEncoding encoding;
+    private final int stdOutLimit;
+    // Row of the output matrix with only the essential columns set: the columns of each MHS are set and then reset
+    private final byte[] row;
+    // Essential columns of the input matrix (sorted), added to each MHS
+    private final int[] essentialCols;
+    // Columns of the input matrix of the current MHS (sorted)
+    private final int[] cols;
+    // Bytes of the current MHS (not dense encodings)
+    private final byte[] buffer;
+    private long rowsWritten;
+
+    /**
+     * @param outputStream  the stream of the output file (the rows are appended)
+     * @param columnMapping the mapping of the columns of the matrix pre-processed (identity if not pre-processed)
+     * @param encoding      the encoding of the MHS
+     * @param stdOutLimit   the maximum number of rows to print also on the standard output (0 = none)
+     */
+    public OutputMatrixWriter(OutputStream outputStream, ColumnMapping columnMapping, OutputEncoding encoding, int stdOutLimit) {
+        this.outputStream = outputStream;
+        this.columnMapping = columnMapping;
+        this.encoding = encoding;
+        this.stdOutLimit = stdOutLimit;
+
+        final int initialCols = columnMapping.getOriginalCols();
+        this.row = new byte[2 * initialCols + 2];
+        int essentialCount = 0;
+        for (int j = 0; j < initialCols; j++) {
+            row[2 * j] = (byte) (columnMapping.isEssential(j) ? '1' : '0'); // The essential elements belong to each MHS
+            row[2 * j + 1] = ' ';
+            if (columnMapping.isEssential(j))
+                essentialCount++;
+        }
+        row[2 * initialCols] = '-'; // End of the row
+        row[2 * initialCols + 1] = '\n';
+
+        this.essentialCols = new int[essentialCount];
+        for (int j = 0, k = 0; j < initialCols; j++) {
+            if (columnMapping.isEssential(j))
+                essentialCols[k++] = j;
+        }
+
+        this.cols = new int[initialCols];
+        this.buffer = encoding == OutputEncoding.DENSE ? null : new byte[MAX_COLUMN_BYTES * (initialCols + 1) + 2];
+        this.rowsWritten = 0;
+    }
+
+    /**
+     * Write the MHS as a row of the output matrix in the selected encoding.
+     *
+     * @param elements the sorted indices of the elements of the MHS (relative indexing)
+     * @param size     the number of elements of the MHS
+     * @throws IOException
+     */
+    @Override
+    public void accept(int[] elements, int size) throws IOException {
+        if (encoding == OutputEncoding.DENSE) {
+            acceptDense(elements, size);
+            return;
+        }
+
+        final int count = mergeColumns(elements, size);
+        final int length = encoding == OutputEncoding.VARINT ? encodeVarints(count) : encodeIndices(count);
+
+        // Write the row of the matrix
+        outputStream.write(buffer, 0, length);
+        rowsWritten++;
+
+        // The varints are printed as text
+        printOnStdOut(buffer, encoding == OutputEncoding.VARINT && rowsWritten <= stdOutLimit ? encodeIndices(count) : length);
+    }
+
+    /**
+     * Write the MHS as a row of the output matrix with the correct number of columns.
+     *
+     * @param elements the sorted indices of the elements of the MHS (relative indexing)
+     * @param size     the number of elements of the MHS
+     * @throws IOException
+     */
+    private void acceptDense(int[] elements, int size) throws IOException {
+        for (int k = 0; k < size; k++) {
+            row[2 * columnMapping.toOriginal(elements[k])] = '1';
+        }
+
+        // Write the row of the matrix
+        outputStream.write(row);
+        rowsWritten++;
+
+        printOnStdOut(row, row.length);
+
+        for (int k = 0; k < size; k++) {
+            row[2 * columnMapping.toOriginal(elements[k])] = '0';
+        }
+    }
+
+    /**
+     * Method to merge the essential columns and the columns of the MHS (both sorted, since the mapping preserves the
+     * order of the columns).
+     *
+     * @param elements the sorted indices of the elements of the MHS (relative indexing)
+     * @param size     the number of elements of the MHS
+     * @return the number of columns of the MHS in the input matrix
+     */
+    private int mergeColumns(int[] elements, int size) {
+        int count = 0;
+        int e = 0;
+
+        for (int k = 0; k < size; k++) {
+            final int col = columnMapping.toOriginal(elements[k]);
+            while (e < essentialCols.length && essentialCols[e] < col) {
+                cols[count++] = essentialCols[e++];
+            }
+            cols[count++] = col;
+        }
+        while (e < essentialCols.length) {
+            cols[count++] = essentialCols[e++];
+        }
+
+        return count;
+    }
+
+    /**
+     * Method to encode the columns of the MHS as text, e.g. "1 4 -".
+     *
+     * @param count the number of columns
+     * @return the number of bytes of the buffer
+     */
+    private int encodeIndices(int count) {
+        int p = 0;
+
+        for (int k = 0; k < count; k++) {
+            p = encodeDecimal(cols[k], p);
+            buffer[p++] = ' ';
+        }
+        buffer[p++] = '-'; // End of the row
+        buffer[p++] = '\n';
+
+        return p;
+    }
+
+    /**
+     * Method to write the decimal digits of the value into the buffer.
+     *
+     * @param value    the non-negative value
+     * @param position the position of the first digit
+     * @return the position after the last digit
+     */
+    private int encodeDecimal(int value, int position) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+
+        for (int p = position + digits - 1; p >= position; p--) {
+            buffer[p] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+
+        return position + digits;
+    }
+
+    /**
+     * Method to encode the columns of the MHS as varints: the number of columns + 1, then the first column and the
+     * differences between consecutive columns.
+     *
+     * @param count the number of columns
+     * @return the number of bytes of the buffer
+     */
+    private int encodeVarints(int count) {
+        int p = encodeVarint(count + 1, 0);
+
+        for (int k = 0; k < count; k++) {
+            p = encodeVarint(k == 0 ? cols[0] : cols[k] - cols[k - 1], p);
+        }
+
+        return p;
+    }
+
+    /**
+     * Method to write the value as unsigned LEB128 varint (7 bits per byte, the high bit set if more bytes follow).
+     *
+     * @param value    the non-negative value
+     * @param position the position of the first byte
+     * @return the position after the last byte
+     */
+    private int encodeVarint(int value, int position) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+
+        return position;
+    }
+
+    /**
+     * Print the row on the standard output until the limit is reached.
+     *
+     * @param bytes  the bytes of the row
+     * @param length the number of bytes of the row
+     */
+    private void printOnStdOut(byte[] bytes, int length) {
+        if (rowsWritten == 1 && stdOutLimit > 0)
+            System.out.println(encoding.getHeader());
+
+        if (rowsWritten <= stdOutLimit)
+            System.out.write(bytes, 0, length);
+        else if (rowsWritten == stdOutLimit + 1 && stdOutLimit > 0)
+            System.out.println("MHS matrix too large to print on standard output. Check the report file, please.");
+    }
+
+    /**
+     * Write the end of the output matrix (varint encoding) and flush the rows written: the stream is closed by the
+     * OutputFileWriter, after the rest of the report.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (encoding == OutputEncoding.VARINT) {
+            outputStream.write(0);
+            outputStream.write('\n');
+        }
+
+        outputStream.flush();
+    }
+}
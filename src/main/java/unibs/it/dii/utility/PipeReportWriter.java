@@ -0,0 +1,28 @@
+package unibs.it.dii.utility;
+
+import com.opencsv.CSVWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Class to send the records of the report of a child JVM to the supervisor JVM (see {@link ChildJvmRunner}): each
+ * record is written on the standard output as a CSV line after {@value #RECORD_PREFIX}, so the supervisor can
+ * separate it from the rest of the output.
+ */
+public class PipeReportWriter implements ReportWriter {
+
+    public static final String RECORD_PREFIX = "#MHS-REPORT-RECORD# ";
+
+    @Override
+    public synchronized void writeRecord(String[] record) throws IOException {
+        final StringWriter line = new StringWriter();
+
+        try (CSVWriter writer = new CSVWriter(line, CSVWriter.DEFAULT_SEPARATOR, CSVWriter.DEFAULT_QUOTE_CHARACTER, CSVWriter.DEFAULT_ESCAPE_CHARACTER, "")) {
+            writer.writeNext(record);
+        }
+
+        System.out.println(RECORD_PREFIX + line);
+        System.out.flush();
+    }
+}
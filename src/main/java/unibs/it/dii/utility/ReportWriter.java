@@ -0,0 +1,18 @@
+package unibs.it.dii.utility;
+
+import java.io.IOException;
+
+/**
+ * This interface represents the destination of the records of the report (one for each input matrix): the CSV file
+ * (see {@link OutputCSVWriter}) or the pipe to the supervisor JVM (see {@link PipeReportWriter}).
+ */
+public interface ReportWriter {
+
+    /**
+     * Method to add a record of the report.
+     *
+     * @param record the values of the columns
+     * @throws IOException
+     */
+    void writeRecord(String[] record) throws IOException;
+}
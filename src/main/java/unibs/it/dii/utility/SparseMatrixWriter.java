@@ -0,0 +1,39 @@
+package unibs.it.dii.utility;
+
+import java.io.*;
+
+/**
+ * Class to write a matrix in the sparse text format (.smatrix): after the comments (lines starting with ';'), the first
+ * line is the number of rows and columns, then each line is a row with the indices of its columns (from 0) followed by
+ * '-'. For example, the row "0 1 0 0 1 -" of a .matrix file is the row "1 4 -" of a .smatrix file.
+ */
+public class SparseMatrixWriter {
+
+    public static final String FILE_SPARSE_MATRIX_EXTENSION = "smatrix";
+
+    /**
+     * Method to write the matrix in a sparse file.
+     *
+     * @param matrix the boolean matrix
+     * @param file   the output file (overwritten)
+     * @throws IOException
+     */
+    public void writeMatrixToFile(boolean[][] matrix, File file) throws IOException {
+        final int cols = matrix.length > 0 ? matrix[0].length : 0;
+
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write(";;; Sparse matrix: number of rows and columns, then the columns (from 0) of each row\n");
+            writer.write(matrix.length + " " + cols + "\n");
+
+            for (boolean[] row : matrix) {
+                for (int j = 0; j < cols; j++) {
+                    if (row[j]) {
+                        writer.write(Integer.toString(j));
+                        writer.write(' ');
+                    }
+                }
+                writer.write("-\n");
+            }
+        }
+    }
+}